@@ -0,0 +1,80 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/http;
+import ballerina/jballerina.java;
+
+// Priority classes of the requests. Interactive requests are admitted before batch requests.
+const INTERACTIVE_PRIORITY = 0;
+const BATCH_PRIORITY = 1;
+
+type RequestPriority INTERACTIVE_PRIORITY|BATCH_PRIORITY;
+
+isolated function createAdmissionControl(AdmissionConfig? config) returns handle?|ai:Error {
+    if config is () {
+        return;
+    }
+    if config.minLimit <= 0 || config.initialLimit < config.minLimit || config.maxLimit < config.initialLimit {
+        return error("Admission limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+    }
+    if config.maxQueueSize < 0 || config.maxQueueWait < 0d || config.latencyTolerance <= 1.0 {
+        return error("Admission queue bounds must not be negative and the latency tolerance must exceed 1");
+    }
+    return createAdmissionController(config.initialLimit, config.minLimit, config.maxLimit, config.maxQueueSize,
+            <int>(config.maxQueueWait * 1000000000), config.latencyTolerance);
+}
+
+isolated function awaitAdmission(handle admissionController, RequestPriority priority) returns ai:Error? {
+    error? rejection = admitRequest(admissionController, priority);
+    if rejection is error {
+        return error(rejection.message());
+    }
+}
+
+// Whether the failure of a request indicates that the server is overloaded.
+isolated function isOverloaded(any|error response) returns boolean =>
+    response is http:RemoteServerError|http:IdleTimeoutError || isUnreachable(response);
+
+isolated function getAdmissionStatsFromController(handle admissionController) returns AdmissionStats {
+    int[] stats = getAdmissionControllerStats(admissionController);
+    return {
+        concurrencyLimit: stats[0],
+        inFlightRequests: stats[1],
+        queuedInteractiveRequests: stats[2],
+        queuedBatchRequests: stats[3],
+        rejectedRequests: stats[4],
+        timedOutRequests: stats[5]
+    };
+}
+
+isolated function createAdmissionController(int initialLimit, int minLimit, int maxLimit, int maxQueueSize,
+        int maxQueueWaitInNanos, float latencyTolerance) returns handle = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.AdmissionController"
+} external;
+
+isolated function admitRequest(handle admissionController, int priority) returns error? = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.AdmissionController"
+} external;
+
+isolated function releaseRequest(handle admissionController, int latencyInNanos, int tokenCount,
+        boolean overloaded) = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.AdmissionController"
+} external;
+
+isolated function getAdmissionControllerStats(handle admissionController) returns int[] = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.AdmissionController"
+} external;
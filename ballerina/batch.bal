@@ -0,0 +1,128 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/jballerina.java;
+
+// Hands out the indices of the batch items to the workers.
+isolated class BatchDispatcher {
+    private final int size;
+    private int nextIndex = 0;
+
+    isolated function init(int size) {
+        self.size = size;
+    }
+
+    isolated function take() returns int? {
+        lock {
+            if self.nextIndex >= self.size {
+                return;
+            }
+            int index = self.nextIndex;
+            self.nextIndex += 1;
+            return index;
+        }
+    }
+
+    // Stops handing out the remaining indices.
+    isolated function cancel() {
+        lock {
+            self.nextIndex = self.size;
+        }
+    }
+}
+
+isolated function generateBatchResponses(ChatExecutor chatExecutor, string modelType,
+        readonly & RequestTemplate requestTemplate, boolean streamGenerate, handle? imageCache,
+        ai:Prompt[] prompts, typedesc<json> expectedResponseTypedesc, BatchConfig config)
+        returns BatchResult[]|ai:Error {
+    if config.concurrency <= 0 {
+        return error("Batch concurrency must be positive");
+    }
+    // The schema is resolved once for the whole batch.
+    readonly & ResponseSchemaEntry responseSchema = check getResponseSchemaEntry(expectedResponseTypedesc);
+
+    // The requests share immutable contents, so each prompt is only rendered and frozen once there is
+    // a free request slot for it. This way no more than `concurrency` contents are held at a time. A slot
+    // is refilled as soon as any item completes, so that a slow item does not hold up the other slots.
+    BatchResult[] results = [];
+    map<future<anydata|ai:Error>> inFlight = {};
+    handle completions = createBatchCompletions();
+    foreach int index in 0 ..< prompts.length() {
+        if inFlight.length() == config.concurrency {
+            results.push(waitForCompletedBatchItem(completions, inFlight));
+        }
+        ChatContent|ai:Error content = generateChatCreationContent(prompts[index], requestTemplate.structuredOutput);
+        if content is ai:Error {
+            results.push({index, result: content});
+            continue;
+        }
+        readonly & ChatContent itemContent = content.cloneReadOnly();
+        inFlight[index.toString()] = start generateBatchItem(chatExecutor, modelType, requestTemplate,
+                streamGenerate, imageCache, itemContent, responseSchema, expectedResponseTypedesc, completions, index);
+    }
+    while inFlight.length() > 0 {
+        results.push(waitForCompletedBatchItem(completions, inFlight));
+    }
+    return from BatchResult result in results
+        order by result.index ascending
+        select result;
+}
+
+// Waits for the next item to complete and removes it from the items in flight.
+isolated function waitForCompletedBatchItem(handle completions, map<future<anydata|ai:Error>> inFlight)
+        returns BatchResult {
+    int|error completedIndex = awaitBatchItem(completions);
+    // Should waiting for the completions fail, the items are waited for in any order instead.
+    string key = completedIndex is int ? completedIndex.toString() : inFlight.keys()[0];
+    future<anydata|ai:Error> generation = inFlight.remove(key);
+    anydata|error result = wait generation;
+    int index = checkpanic int:fromString(key);
+    if result is ai:Error || result !is error {
+        return {index, result};
+    }
+    // A failure other than an `ai:Error` is recorded for the item rather than failing the whole batch.
+    ai:Error err = error("Error while generating the batch response", result);
+    return {index, result: err};
+}
+
+// Generates the value of an item and reports its completion, including when the generation panics, so that
+// the batch is never left waiting for it.
+isolated function generateBatchItem(ChatExecutor chatExecutor, string modelType,
+        readonly & RequestTemplate requestTemplate, boolean streamGenerate, handle? imageCache,
+        readonly & ChatContent content, readonly & ResponseSchemaEntry responseSchema,
+        typedesc<json> expectedResponseTypedesc, handle completions, int index) returns anydata|ai:Error {
+    GenerateObservation observation = new (modelType, chatExecutor.selectSpanCapture());
+    anydata|error result = trap generateForChatContent(observation, chatExecutor, requestTemplate, streamGenerate,
+            imageCache, content, responseSchema, expectedResponseTypedesc, BATCH_PRIORITY);
+    completeBatchItem(completions, index);
+    if result is ai:Error || result !is error {
+        return result;
+    }
+    return error("Error while generating the batch response", result);
+}
+
+isolated function createBatchCompletions() returns handle = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.BatchCompletions"
+} external;
+
+isolated function completeBatchItem(handle completions, int index) = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.BatchCompletions"
+} external;
+
+isolated function awaitBatchItem(handle completions) returns int|error = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.BatchCompletions"
+} external;
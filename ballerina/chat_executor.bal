@@ -0,0 +1,250 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/http;
+import ballerina/jballerina.java;
+import ballerina/observe;
+import ballerina/time;
+
+// Sends the requests of a provider to the Ollama chat API, applying the request-level
+// optimizations that are enabled in the advanced configuration.
+isolated class ChatExecutor {
+    private final EndpointPool endpoints;
+    private final handle? inFlightRequests;
+    private final handle? responseCache;
+    private final handle? admissionController;
+    private final ModelMetrics metrics;
+    private final SpanSampler spanSampler;
+
+    isolated function init(string modelType, EndpointPool endpoints, decimal requestTimeout, AdvancedConfig config)
+            returns ai:Error? {
+        self.endpoints = endpoints;
+        self.inFlightRequests = config.coalesceIdenticalRequests
+            ? createInFlightRequests(getJoinTimeout(endpoints.size(), requestTimeout, config?.admissionControl))
+            : ();
+        self.responseCache = check createResponseCache(config?.responseCache);
+        self.admissionController = check createAdmissionControl(config?.admissionControl);
+        self.metrics = new (modelType, config.observability.level);
+        self.spanSampler = check new (config.observability);
+    }
+
+    // Sends a request and binds the complete response. The response is served from the response cache
+    // when available. When request coalescing is enabled, a request that is identical to one already
+    // in flight waits for that response instead of being sent again. Only the requests that are sent
+    // to the server go through admission control.
+    isolated function send(RequestBody request, RequestPriority priority = INTERACTIVE_PRIORITY)
+            returns OllamaResponse|ai:Error {
+        // Streamed request bodies are neither cached nor coalesced, as they would have to be buffered.
+        if request !is byte[] {
+            return self.post(request, priority);
+        }
+        handle? responseCache = self.responseCache;
+        if responseCache is handle {
+            OllamaResponse? cachedResponse = getResponseFromCache(responseCache, request);
+            if cachedResponse is OllamaResponse {
+                return cachedResponse;
+            }
+        }
+        handle? inFlightRequests = self.inFlightRequests;
+        handle? registration = ();
+        if inFlightRequests is handle {
+            handle|OllamaResponse|error joined = joinInFlightRequest(inFlightRequests, request);
+            if joined is ai:Error {
+                return joined;
+            }
+            if joined is error {
+                return error(joined.message(), joined);
+            }
+            if joined is OllamaResponse {
+                // The response is shared by the waiting callers, so each of them is given its own copy.
+                return joined.clone();
+            }
+            registration = joined;
+        }
+
+        // The callers waiting for this request are released even if sending it panics.
+        OllamaResponse|error response = trap self.post(request, priority);
+        if responseCache is handle && response is OllamaResponse {
+            addResponseToCache(responseCache, request, response);
+        }
+        if registration is handle {
+            completeInFlightRequest(registration, response is OllamaResponse|ai:Error ? response.clone()
+                    : error("Error while sending an identical request", response));
+        }
+        if response is OllamaResponse|ai:Error {
+            return response;
+        }
+        panic response;
+    }
+
+    isolated function getResponseCacheStats() returns ResponseCacheStats? {
+        handle? responseCache = self.responseCache;
+        return responseCache is handle ? getResponseCacheStatsFromCache(responseCache) : ();
+    }
+
+    // Sends a request that loads the model to every endpoint concurrently. Such requests are neither
+    // cached nor coalesced.
+    isolated function sendLoadRequest(readonly & byte[] request) returns OllamaResponse[]|ai:Error {
+        future<OllamaResponse|error>[] loads = [];
+        foreach int i in 0 ..< self.endpoints.size() {
+            loads.push(start postLoadRequest(self.endpoints.getClient(i), request));
+        }
+        OllamaResponse[] responses = [];
+        foreach future<OllamaResponse|error> load in loads {
+            OllamaResponse|error response = wait load;
+            if response is error {
+                return error("Error while loading the model", response);
+            }
+            responses.push(response);
+        }
+        return responses;
+    }
+
+    // Sends a request whose response is read as a stream of frames. Streamed responses are not coalesced.
+    // The latency recorded for the endpoint is the time taken to receive the response headers. The request
+    // counts against the admission limit until the returned admission is released, which is when the
+    // response stream is closed, unless the response is not streamed.
+    isolated function sendForStream(RequestBody request, RequestPriority priority = INTERACTIVE_PRIORITY)
+            returns [http:Response, StreamAdmission]|ai:Error {
+        check self.admit(priority);
+        decimal startTime = time:monotonicNow();
+        http:Response|error response = error("No endpoint could be reached");
+        foreach int _ in 0 ..< self.getAttempts(request) {
+            int endpoint = self.endpoints.acquire();
+            http:Client ollamaClient = self.endpoints.getClient(endpoint);
+            decimal attemptStartTime = time:monotonicNow();
+            response = ollamaClient->/api/chat.post(request, mediaType = JSON_MEDIA_TYPE);
+            boolean unreachable = isUnreachable(response);
+            self.endpoints.release(endpoint, time:monotonicNow() - attemptStartTime, unreachable);
+            if !unreachable {
+                break;
+            }
+        }
+        StreamAdmission admission = new (self, startTime);
+        if response is error {
+            admission.release(0, isOverloaded(response));
+            return error("Error while connecting to ollama", response);
+        }
+        if response.statusCode != http:STATUS_OK {
+            admission.release(0, response.statusCode >= 500);
+        }
+        return [response, admission];
+    }
+
+    isolated function getEndpointStats() returns EndpointStats[] => self.endpoints.getStats();
+
+    isolated function getMetrics() returns ModelMetrics => self.metrics;
+
+    // Selects the span recorded for a request. No span is recorded while tracing is disabled.
+    isolated function selectSpanCapture() returns SpanCapture =>
+        observe:isTracingEnabled() ? self.spanSampler.sample() : NO_SPAN;
+
+    isolated function getAdmissionStats() returns AdmissionStats? {
+        handle? admissionController = self.admissionController;
+        return admissionController is handle ? getAdmissionStatsFromController(admissionController) : ();
+    }
+
+    // The timings of the response are recorded along with the time the request waited for admission.
+    private isolated function post(RequestBody request, RequestPriority priority) returns OllamaResponse|ai:Error {
+        decimal queuedTime = time:monotonicNow();
+        check self.admit(priority);
+        decimal startTime = time:monotonicNow();
+        OllamaResponse|error response = error("No endpoint could be reached");
+        foreach int _ in 0 ..< self.getAttempts(request) {
+            int endpoint = self.endpoints.acquire();
+            http:Client ollamaClient = self.endpoints.getClient(endpoint);
+            decimal attemptStartTime = time:monotonicNow();
+            response = ollamaClient->/api/chat.post(request, mediaType = JSON_MEDIA_TYPE);
+            boolean unreachable = isUnreachable(response);
+            self.endpoints.release(endpoint, time:monotonicNow() - attemptStartTime, unreachable);
+            if !unreachable {
+                break;
+            }
+        }
+        int tokenCount = response is OllamaResponse
+            ? (response.prompt_eval_count ?: 0) + (response.eval_count ?: 0) : 0;
+        self.release(time:monotonicNow() - startTime, tokenCount, isOverloaded(response));
+        if response is error {
+            return error("Error while connecting to ollama", response);
+        }
+        self.metrics.recordResponse(response, startTime - queuedTime);
+        return response;
+    }
+
+    private isolated function admit(RequestPriority priority) returns ai:Error? {
+        handle? admissionController = self.admissionController;
+        if admissionController is handle {
+            check awaitAdmission(admissionController, priority);
+        }
+    }
+
+    isolated function release(decimal latency, int tokenCount, boolean overloaded) {
+        handle? admissionController = self.admissionController;
+        if admissionController is handle {
+            releaseRequest(admissionController, <int>(latency * 1000000000), tokenCount, overloaded);
+        }
+    }
+
+    // A request body held in memory can be sent again, so such a request fails over to the other
+    // endpoints when an endpoint cannot be reached. A streamed body can only be sent once.
+    private isolated function getAttempts(RequestBody request) returns int =>
+        request is byte[] ? self.endpoints.size() : 1;
+}
+
+// Admission of a streamed request, which is released once. The latency recorded for the request is the
+// time taken until the response stream is released.
+class StreamAdmission {
+    private final ChatExecutor chatExecutor;
+    private final decimal startTime;
+    private boolean released = false;
+
+    isolated function init(ChatExecutor chatExecutor, decimal startTime) {
+        self.chatExecutor = chatExecutor;
+        self.startTime = startTime;
+    }
+
+    isolated function release(int tokenCount, boolean overloaded = false) {
+        if self.released {
+            return;
+        }
+        self.released = true;
+        self.chatExecutor.release(time:monotonicNow() - self.startTime, tokenCount, overloaded);
+    }
+}
+
+isolated function postLoadRequest(http:Client ollamaClient, readonly & byte[] request) returns OllamaResponse|error =>
+    ollamaClient->/api/chat.post(request, mediaType = JSON_MEDIA_TYPE);
+
+// Callers waiting for an identical request wait for as long as that request may take to be admitted and
+// to fail over to every endpoint.
+isolated function getJoinTimeout(int endpoints, decimal requestTimeout, AdmissionConfig? admissionConfig) returns int {
+    decimal joinTimeout = requestTimeout * <decimal>endpoints + (admissionConfig?.maxQueueWait ?: 0d);
+    return <int>(joinTimeout * 1000000000);
+}
+
+isolated function createInFlightRequests(int joinTimeoutInNanos) returns handle = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.InFlightRequests"
+} external;
+
+isolated function joinInFlightRequest(handle inFlightRequests, byte[] payload) returns handle|OllamaResponse|error =
+@java:Method {
+    'class: "io.ballerina.lib.ai.ollama.InFlightRequests"
+} external;
+
+isolated function completeInFlightRequest(handle registration, OllamaResponse|error response) = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.InFlightRequests"
+} external;
@@ -0,0 +1,96 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+
+const NUM_CTX_OPTION = "num_ctx";
+
+// Approximate number of characters per token, used when no token estimator is configured.
+const CHARS_PER_TOKEN = 4;
+
+// Validated context sizing configuration, with the context sizes in ascending order.
+type ContextSizing record {|
+    int[] contextSizes;
+    int responseTokens;
+    TokenEstimator tokenEstimator;
+|};
+
+// Context window size chosen for a request, along with the estimated number of tokens of its prompt.
+type ContextSize record {|
+    int numCtx;
+    int estimatedPromptTokens;
+|};
+
+isolated function createContextSizing(ContextSizingConfig? config) returns (readonly & ContextSizing)?|ai:Error {
+    if config is () {
+        return;
+    }
+    int[] contextSizes = config.contextSizes;
+    if contextSizes.length() == 0 || contextSizes.some(size => size <= 0) || config.responseTokens < 0 {
+        return error("At least one context size must be provided, context sizes must be positive "
+            + "and the response tokens must not be negative");
+    }
+    return {
+        contextSizes: contextSizes.sort().cloneReadOnly(),
+        responseTokens: config.responseTokens,
+        tokenEstimator: config.tokenEstimator ?: estimateTokenCount
+    };
+}
+
+// Estimates the prompt tokens of the given parts of a request and chooses its context size.
+// The texts are only estimated when context sizing is enabled.
+isolated function selectContextSize(RequestTemplate template, string... texts) returns ContextSize? {
+    ContextSizing? contextSizing = template.contextSizing;
+    if contextSizing is () {
+        return;
+    }
+    int estimatedPromptTokens = 0;
+    foreach string text in texts {
+        estimatedPromptTokens += contextSizing.tokenEstimator(text);
+    }
+    return chooseContextSize(contextSizing, estimatedPromptTokens);
+}
+
+// Chooses the smallest context size that fits the prompt and the response, or the largest size if
+// none does. Choosing from a fixed set of sizes keeps the server from reloading the model for
+// every request whose size differs slightly from the previous one.
+isolated function chooseContextSize(ContextSizing contextSizing, int estimatedPromptTokens) returns ContextSize {
+    int[] contextSizes = contextSizing.contextSizes;
+    int requiredTokens = estimatedPromptTokens + contextSizing.responseTokens;
+    foreach int numCtx in contextSizes {
+        if numCtx >= requiredTokens {
+            return {numCtx, estimatedPromptTokens};
+        }
+    }
+    return {numCtx: contextSizes[contextSizes.length() - 1], estimatedPromptTokens};
+}
+
+// Number of tokens the prompt of a request can take, which is the largest context size that can be chosen
+// less the tokens reserved for the response when context sizing is enabled.
+isolated function getPromptTokenLimit(ContextSizing? contextSizing, int numCtx) returns int {
+    if contextSizing is () {
+        return numCtx;
+    }
+    int[] contextSizes = contextSizing.contextSizes;
+    return int:max(contextSizes[contextSizes.length() - 1] - contextSizing.responseTokens, 0);
+}
+
+isolated function getTokenEstimator(RequestTemplate template) returns TokenEstimator {
+    ContextSizing? contextSizing = template.contextSizing;
+    return contextSizing is () ? estimateTokenCount : contextSizing.tokenEstimator;
+}
+
+isolated function estimateTokenCount(string text) returns int => text.length() / CHARS_PER_TOKEN + 1;
@@ -0,0 +1,180 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/ai.observe;
+import ballerina/http;
+
+# EmbeddingProvider represents a client for generating embeddings with Ollama embedding models.
+@display {
+    label: "Ollama Embedding Provider"
+}
+public isolated client class EmbeddingProvider {
+    *ai:EmbeddingProvider;
+    private final http:Client ollamaClient;
+    private final string modelType;
+    private final int batchSize;
+    private final int concurrency;
+    private final readonly & map<json> requestTemplate;
+
+    # Initializes the client with the given connection configuration and embedding configuration.
+    #
+    # + modelType - The Ollama embedding model name
+    # + serviceUrl - The base URL for the Ollama API endpoint
+    # + connectionConfig - Additional connection configuration
+    # + embeddingConfig - Configuration for generating embeddings
+    # + return - `nil` on success, otherwise an `ai:Error`.
+    public isolated function init(@display {label: "Model Type"} string modelType,
+            @display {label: "Service URL"} string serviceUrl = DEFAULT_OLLAMA_SERVICE_URL,
+            @display {label: "Connection Configuration"} *ConnectionConfig connectionConfig,
+            @display {label: "Embedding Configuration"} *EmbeddingConfig embeddingConfig) returns ai:Error? {
+        if embeddingConfig.batchSize <= 0 || embeddingConfig.concurrency <= 0 {
+            return error("Embedding batch size and concurrency must be positive");
+        }
+        self.ollamaClient = check createOllamaClient(serviceUrl, connectionConfig);
+        self.modelType = modelType;
+        self.batchSize = embeddingConfig.batchSize;
+        self.concurrency = embeddingConfig.concurrency;
+        map<json> requestTemplate = {model: modelType, truncate: embeddingConfig.truncate};
+        string|int? keepAlive = embeddingConfig?.keepAlive;
+        if keepAlive !is () {
+            requestTemplate["keep_alive"] = keepAlive;
+        }
+        self.requestTemplate = requestTemplate.cloneReadOnly();
+    }
+
+    # Converts a chunk to its embedding.
+    #
+    # + chunk - The chunk to convert
+    # + return - The embedding of the chunk, or an error in-case of failures
+    isolated remote function embed(ai:Chunk chunk) returns ai:Embedding|ai:Error {
+        ai:Embedding[] embeddings = check self->batchEmbed([chunk]);
+        return embeddings[0];
+    }
+
+    # Converts a batch of chunks to their embeddings. The chunks are grouped into requests of the
+    # configured batch size, which are sent concurrently up to the configured concurrency.
+    #
+    # + chunks - The chunks to convert
+    # + return - The embeddings of the chunks in the same order, or an error in-case of failures
+    isolated remote function batchEmbed(ai:Chunk[] chunks) returns ai:Embedding[]|ai:Error {
+        // No request is sent, nor span recorded, for an empty batch.
+        if chunks.length() == 0 {
+            return [];
+        }
+        observe:EmbeddingSpan span = observe:createEmbeddingSpan(self.modelType);
+        span.addProvider("ollama");
+        EmbeddingBatch[]|ai:Error batches = self.embedTexts(chunks);
+        if batches is ai:Error {
+            span.close(batches);
+            return batches;
+        }
+
+        ai:Embedding[] embeddings = [];
+        int inputTokens = 0;
+        foreach EmbeddingBatch batch in batches {
+            embeddings.push(...batch.embeddings);
+            inputTokens += batch.inputTokens;
+        }
+        span.addInputTokenCount(inputTokens);
+        span.close();
+        return embeddings;
+    }
+
+    private isolated function embedTexts(ai:Chunk[] chunks) returns EmbeddingBatch[]|ai:Error {
+        string[] chunkTexts = check getChunkTexts(chunks);
+        readonly & string[] texts = chunkTexts.cloneReadOnly();
+        int batchCount = (texts.length() + self.batchSize - 1) / self.batchSize;
+        if batchCount <= 1 {
+            return [check postEmbedRequest(self.ollamaClient, self.requestTemplate, texts, 0)];
+        }
+
+        BatchDispatcher dispatcher = new (batchCount);
+        future<EmbeddingBatch[]|ai:Error>[] workers = [];
+        foreach int _ in 0 ..< int:min(self.concurrency, batchCount) {
+            workers.push(start runEmbeddingWorker(self.ollamaClient, self.requestTemplate, texts, self.batchSize,
+                    dispatcher));
+        }
+        EmbeddingBatch[] batches = [];
+        ai:Error? failure = ();
+        foreach future<EmbeddingBatch[]|ai:Error> worker in workers {
+            EmbeddingBatch[]|ai:Error|error workerBatches = wait worker;
+            if workerBatches is EmbeddingBatch[] {
+                batches.push(...workerBatches);
+            } else if failure is () {
+                failure = workerBatches is ai:Error
+                    ? workerBatches : error("Error while generating the embeddings", workerBatches);
+            }
+        }
+        if failure is ai:Error {
+            return failure;
+        }
+        return from EmbeddingBatch batch in batches
+            order by batch.index ascending
+            select batch;
+    }
+}
+
+type EmbeddingBatch record {|
+    int index;
+    float[][] embeddings;
+    int inputTokens;
+|};
+
+isolated function getChunkTexts(ai:Chunk[] chunks) returns string[]|ai:Error {
+    string[] texts = [];
+    foreach ai:Chunk chunk in chunks {
+        if chunk !is ai:TextChunk|ai:TextDocument {
+            return error("Unsupported chunk type. Only 'ai:TextChunk' and 'ai:TextDocument' are supported");
+        }
+        texts.push(chunk.content);
+    }
+    return texts;
+}
+
+isolated function runEmbeddingWorker(http:Client ollamaClient, readonly & map<json> requestTemplate,
+        readonly & string[] texts, int batchSize, BatchDispatcher dispatcher) returns EmbeddingBatch[]|ai:Error {
+    EmbeddingBatch[] batches = [];
+    int? index = dispatcher.take();
+    while index is int {
+        int startIndex = index * batchSize;
+        string[] batchTexts = texts.slice(startIndex, int:min(startIndex + batchSize, texts.length()));
+        EmbeddingBatch|ai:Error batch = postEmbedRequest(ollamaClient, requestTemplate, batchTexts, index);
+        if batch is ai:Error {
+            // The remaining batches are not sent, as the embeddings of the chunks are returned together.
+            dispatcher.cancel();
+            return batch;
+        }
+        batches.push(batch);
+        index = dispatcher.take();
+    }
+    return batches;
+}
+
+isolated function postEmbedRequest(http:Client ollamaClient, readonly & map<json> requestTemplate,
+        string[] texts, int index) returns EmbeddingBatch|ai:Error {
+    // Ollama embedding API reference: https://github.com/ollama/ollama/blob/main/docs/api.md#generate-embeddings
+    map<json> request = {...requestTemplate, input: texts};
+    OllamaEmbedResponse|error response = ollamaClient->/api/embed.post(request);
+    if response is error {
+        return error("Error while connecting to ollama", response);
+    }
+    if response.embeddings.length() != texts.length() {
+        return error(string `Expected ${texts.length()} embeddings from ollama, found ${
+            response.embeddings.length()}`);
+    }
+    return {index, embeddings: response.embeddings, inputTokens: response.prompt_eval_count ?: 0};
+}
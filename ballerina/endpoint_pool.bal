@@ -0,0 +1,159 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/http;
+import ballerina/time;
+
+// Weight of the latest latency sample in the smoothed latency of an endpoint.
+const decimal LATENCY_SMOOTHING_FACTOR = 0.3;
+
+// Distributes the requests of a provider over its Ollama endpoints. Each request goes to the healthy endpoint
+// with the lowest load score, which grows with both the outstanding requests and the recent latency of the
+// endpoint. Endpoints that cannot be reached are taken out of rotation until a health probe succeeds.
+isolated class EndpointPool {
+    private final readonly & string[] urls;
+    private final decimal probeInterval;
+    private final http:Client[] clients = [];
+    private final int[] inFlightRequests = [];
+    private final decimal[] latencies = [];
+    private final boolean[] healthy = [];
+    private final decimal[] lastProbeTimes = [];
+
+    isolated function init(string[] urls, ConnectionConfig connectionConfig, decimal probeInterval)
+            returns ai:Error? {
+        if urls.length() == 0 {
+            return error("At least one service URL must be provided");
+        }
+        if probeInterval <= 0d {
+            return error("Health probe interval must be positive");
+        }
+        self.urls = urls.cloneReadOnly();
+        self.probeInterval = probeInterval;
+        decimal now = time:monotonicNow();
+        foreach string url in self.urls {
+            http:Client ollamaClient = check createOllamaClient(url, connectionConfig);
+            lock {
+                self.clients.push(ollamaClient);
+                self.inFlightRequests.push(0);
+                self.latencies.push(0);
+                self.healthy.push(true);
+                self.lastProbeTimes.push(now);
+            }
+        }
+    }
+
+    isolated function size() returns int => self.urls.length();
+
+    // Selects the endpoint for a request and counts the request as outstanding on it. Endpoints whose
+    // latency is not known yet are preferred, so that every endpoint is tried. If no endpoint is healthy,
+    // the request is still sent to the least loaded one.
+    isolated function acquire() returns int {
+        foreach int index in self.takeDueProbes() {
+            future<()> _ = start self.probe(index);
+        }
+        lock {
+            int selected = 0;
+            foreach int i in 1 ..< self.urls.length() {
+                boolean preferred = self.healthy[i] == self.healthy[selected]
+                    ? isLessLoaded(self.inFlightRequests[i], self.latencies[i], self.inFlightRequests[selected],
+                            self.latencies[selected])
+                    : self.healthy[i];
+                if preferred {
+                    selected = i;
+                }
+            }
+            self.inFlightRequests[selected] += 1;
+            return selected;
+        }
+    }
+
+    // Records the completion of a request sent to the endpoint. An endpoint that could not be reached is
+    // taken out of rotation, and is put back once a health probe succeeds.
+    isolated function release(int index, decimal latency, boolean unreachable) {
+        lock {
+            self.inFlightRequests[index] -= 1;
+            if unreachable {
+                self.healthy[index] = false;
+                return;
+            }
+            decimal smoothedLatency = self.latencies[index];
+            self.latencies[index] = smoothedLatency == 0d ? latency
+                : smoothedLatency + LATENCY_SMOOTHING_FACTOR * (latency - smoothedLatency);
+        }
+    }
+
+    isolated function getClient(int index) returns http:Client {
+        lock {
+            return self.clients[index];
+        }
+    }
+
+    isolated function getStats() returns EndpointStats[] {
+        lock {
+            EndpointStats[] stats = from int i in 0 ..< self.urls.length()
+                select {
+                    url: self.urls[i],
+                    healthy: self.healthy[i],
+                    inFlightRequests: self.inFlightRequests[i],
+                    latency: self.latencies[i]
+                };
+            return stats.clone();
+        }
+    }
+
+    // Returns the endpoints whose health probe is due. Probes are only sent along with requests, so an
+    // idle provider does not probe its endpoints. A single endpoint is never probed, as there is no other
+    // endpoint to route the requests to.
+    private isolated function takeDueProbes() returns readonly & int[] {
+        if self.urls.length() == 1 {
+            return [];
+        }
+        decimal now = time:monotonicNow();
+        lock {
+            int[] dueProbes = [];
+            foreach int i in 0 ..< self.urls.length() {
+                if now - self.lastProbeTimes[i] >= self.probeInterval {
+                    self.lastProbeTimes[i] = now;
+                    dueProbes.push(i);
+                }
+            }
+            return dueProbes.cloneReadOnly();
+        }
+    }
+
+    private isolated function probe(int index) {
+        http:Client ollamaClient = self.getClient(index);
+        json|error version = ollamaClient->/api/version.get();
+        boolean healthy = version !is error;
+        lock {
+            self.healthy[index] = healthy;
+        }
+    }
+}
+
+// Compares the load scores of two endpoints, and their outstanding requests when the scores are equal,
+// such as when the latencies are not known yet.
+isolated function isLessLoaded(int inFlightRequests, decimal latency, int otherInFlightRequests,
+        decimal otherLatency) returns boolean {
+    decimal score = <decimal>(inFlightRequests + 1) * latency;
+    decimal otherScore = <decimal>(otherInFlightRequests + 1) * otherLatency;
+    return score < otherScore || (score == otherScore && inFlightRequests < otherInFlightRequests);
+}
+
+// Whether the request failed without a response from the endpoint.
+isolated function isUnreachable(any|error response) returns boolean =>
+    response is http:ClientError && response !is http:ApplicationResponseError;
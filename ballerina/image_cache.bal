@@ -0,0 +1,41 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/jballerina.java;
+
+isolated function createImageCache(ImageCacheConfig? config) returns handle?|ai:Error {
+    if config is () {
+        return;
+    }
+    if config.maxSizeInBytes <= 0 || config.maxEntrySizeInBytes <= 0 {
+        return error("Image cache size limits must be positive");
+    }
+    return createImageEncodingCache(config.maxSizeInBytes, config.maxEntrySizeInBytes);
+}
+
+isolated function getImageCacheStatsFromCache(handle imageCache) returns ImageCacheStats {
+    int[] stats = getImageEncodingCacheStats(imageCache);
+    return {hits: stats[0], misses: stats[1], entries: stats[2], sizeInBytes: stats[3]};
+}
+
+isolated function createImageEncodingCache(int maxSizeInBytes, int maxEntrySizeInBytes) returns handle = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ImageEncodingCache"
+} external;
+
+isolated function getImageEncodingCacheStats(handle imageCache) returns int[] = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ImageEncodingCache"
+} external;
@@ -0,0 +1,208 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/observe;
+
+const METRIC_MODEL_TAG = "model";
+const decimal NANOS_PER_SECOND = 1000000000;
+
+// Spans recorded for a request, as selected by the observability configuration.
+const NO_SPAN = 0;
+const METADATA_SPAN = 1;
+const PAYLOAD_SPAN = 2;
+
+type SpanCapture NO_SPAN|METADATA_SPAN|PAYLOAD_SPAN;
+
+// Selects the span recorded for each request. At the sampled level, the sampling rate is accumulated
+// over the requests and a request is traced each time the sum reaches one, which spreads the traced
+// requests evenly instead of leaving them to chance.
+isolated class SpanSampler {
+    private final ObservabilityLevel level;
+    private final float samplingRate;
+    private float accumulatedRate = 0.0;
+
+    isolated function init(ObservabilityConfig config) returns ai:Error? {
+        if config.samplingRate < 0.0 || config.samplingRate > 1.0 {
+            return error("Sampling rate must be between 0 and 1");
+        }
+        self.level = config.level;
+        self.samplingRate = config.samplingRate;
+    }
+
+    isolated function sample() returns SpanCapture {
+        if self.level == FULL_CAPTURE {
+            return PAYLOAD_SPAN;
+        }
+        if self.level != SAMPLED_SPANS {
+            return NO_SPAN;
+        }
+        lock {
+            self.accumulatedRate += self.samplingRate;
+            if self.accumulatedRate < 1.0 {
+                return NO_SPAN;
+            }
+            self.accumulatedRate -= 1.0;
+        }
+        return METADATA_SPAN;
+    }
+}
+
+// Values of the metrics derived from the final frame of a response, in seconds and tokens per second.
+type ResponseMetrics record {|
+    float timeToFirstToken?;
+    float loadDuration?;
+    float promptTokensPerSecond?;
+    float generationTokensPerSecond?;
+|};
+
+// Distributions of the server and client timings of the requests sent for a model. Nothing is
+// recorded, nor is any metric registered, at the `OFF` level. The server timings are added to the
+// spans by the observations.
+isolated class ModelMetrics {
+    private final MetricDistributions? distributions;
+
+    isolated function init(string modelType, ObservabilityLevel level = FULL_CAPTURE) {
+        self.distributions = level == OFF ? () : new (modelType);
+    }
+
+    isolated function recordResponse(OllamaResponse response, decimal queueWait = 0, decimal? timeToFirstToken = ()) {
+        MetricDistributions? distributions = self.distributions;
+        if distributions is () {
+            return;
+        }
+        ResponseMetrics metrics = getResponseMetrics(response, queueWait, timeToFirstToken);
+        setGaugeValue(distributions.timeToFirstToken, metrics?.timeToFirstToken);
+        setGaugeValue(distributions.loadDuration, metrics?.loadDuration);
+        setGaugeValue(distributions.promptTokensPerSecond, metrics?.promptTokensPerSecond);
+        setGaugeValue(distributions.generationTokensPerSecond, metrics?.generationTokensPerSecond);
+    }
+
+    isolated function recordSerialization(decimal duration) {
+        MetricDistributions? distributions = self.distributions;
+        if distributions is () {
+            return;
+        }
+        distributions.serializationTime.setValue(<float>duration);
+    }
+
+    isolated function recordParsing(decimal duration) {
+        MetricDistributions? distributions = self.distributions;
+        if distributions is () {
+            return;
+        }
+        distributions.parseTime.setValue(<float>duration);
+    }
+
+    // Records the context size chosen for a request, if any, and how far the estimated prompt tokens
+    // were from the tokens evaluated by the server, so that the token estimator can be calibrated.
+    // The server does not count the tokens of a prompt prefix that it evaluated for an earlier request.
+    isolated function recordContextSize(ContextSize? contextSize, OllamaResponse response) {
+        MetricDistributions? distributions = self.distributions;
+        if distributions is () || contextSize is () {
+            return;
+        }
+        distributions.contextSize.setValue(<float>contextSize.numCtx);
+        int? promptTokens = response.prompt_eval_count;
+        if promptTokens is int && contextSize.estimatedPromptTokens > 0 {
+            distributions.promptTokenEstimateRatio.setValue(
+                    <float>promptTokens / <float>contextSize.estimatedPromptTokens);
+        }
+    }
+
+    isolated function isRecording() returns boolean => self.distributions !is ();
+}
+
+// The registered metrics of a model. Each metric is a gauge with statistics, tagged with the model,
+// so that its percentiles are published.
+isolated class MetricDistributions {
+    final observe:Gauge timeToFirstToken;
+    final observe:Gauge loadDuration;
+    final observe:Gauge promptTokensPerSecond;
+    final observe:Gauge generationTokensPerSecond;
+    final observe:Gauge serializationTime;
+    final observe:Gauge parseTime;
+    final observe:Gauge contextSize;
+    final observe:Gauge promptTokenEstimateRatio;
+
+    isolated function init(string modelType) {
+        self.timeToFirstToken = createDistribution("ollama_time_to_first_token_seconds",
+                "Time from when a request is made until its first token is generated", modelType);
+        self.loadDuration = createDistribution("ollama_load_duration_seconds",
+                "Time the server spent loading the model for a request", modelType);
+        self.promptTokensPerSecond = createDistribution("ollama_prompt_tokens_per_second",
+                "Rate at which the server evaluated the prompt tokens of a request", modelType);
+        self.generationTokensPerSecond = createDistribution("ollama_generation_tokens_per_second",
+                "Rate at which the server generated the response tokens of a request", modelType);
+        self.serializationTime = createDistribution("ollama_request_serialization_seconds",
+                "Time the client spent writing the payload of a request", modelType);
+        self.parseTime = createDistribution("ollama_response_parse_seconds",
+                "Time the client spent binding a response to the expected type", modelType);
+        self.contextSize = createDistribution("ollama_context_size_tokens",
+                "Context window size chosen for a request", modelType);
+        self.promptTokenEstimateRatio = createDistribution("ollama_prompt_token_estimate_ratio",
+                "Ratio of the prompt tokens evaluated by the server to the estimated prompt tokens", modelType);
+    }
+}
+
+isolated function createDistribution(string name, string description, string modelType) returns observe:Gauge {
+    observe:Gauge gauge = new (name, description, {[METRIC_MODEL_TAG]: modelType}, [{}]);
+    // Registering returns the gauge already registered by another provider of the same model, if any.
+    error? _ = gauge.register();
+    return gauge;
+}
+
+// Derives the metrics of the timings reported in the final frame of a response. Unless the time to
+// the first token was measured while streaming, it is derived from the time the request spent waiting
+// to be sent and the time the server spent loading the model and evaluating the prompt.
+isolated function getResponseMetrics(OllamaResponse response, decimal queueWait = 0, decimal? timeToFirstToken = ())
+        returns ResponseMetrics {
+    ResponseMetrics metrics = {};
+    int? loadDuration = response.load_duration;
+    int? promptEvalDuration = response.prompt_eval_duration;
+    if timeToFirstToken is decimal {
+        metrics.timeToFirstToken = <float>timeToFirstToken;
+    } else if promptEvalDuration is int {
+        metrics.timeToFirstToken = <float>(queueWait + toSeconds(loadDuration ?: 0) + toSeconds(promptEvalDuration));
+    }
+    if loadDuration is int {
+        metrics.loadDuration = <float>toSeconds(loadDuration);
+    }
+    float? promptTokensPerSecond = getTokensPerSecond(response.prompt_eval_count, promptEvalDuration);
+    if promptTokensPerSecond is float {
+        metrics.promptTokensPerSecond = promptTokensPerSecond;
+    }
+    float? generationTokensPerSecond = getTokensPerSecond(response.eval_count, response.eval_duration);
+    if generationTokensPerSecond is float {
+        metrics.generationTokensPerSecond = generationTokensPerSecond;
+    }
+    return metrics;
+}
+
+isolated function setGaugeValue(observe:Gauge gauge, float? value) {
+    if value is float {
+        gauge.setValue(value);
+    }
+}
+
+isolated function getTokensPerSecond(int? tokenCount, int? duration) returns float? {
+    if tokenCount is () || duration is () || duration <= 0 {
+        return;
+    }
+    return <float>tokenCount / <float>toSeconds(duration);
+}
+
+isolated function toSeconds(int nanos) returns decimal => <decimal>nanos / NANOS_PER_SECOND;
@@ -0,0 +1,220 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/ai.observe;
+import ballerina/observe as tracing;
+
+// Span of the provider that the attributes of a response are recorded on.
+const RESPONSE_SPAN_NAME = "ollama response";
+
+// Span attributes for the timings reported by the server.
+const TOTAL_DURATION_ATTRIBUTE = "gen_ai.ollama.total_duration";
+const LOAD_DURATION_ATTRIBUTE = "gen_ai.ollama.load_duration";
+const PROMPT_EVAL_DURATION_ATTRIBUTE = "gen_ai.ollama.prompt_eval_duration";
+const EVAL_DURATION_ATTRIBUTE = "gen_ai.ollama.eval_duration";
+
+// Span attributes for the context window size chosen for a request.
+const NUM_CTX_ATTRIBUTE = "gen_ai.ollama.num_ctx";
+const ESTIMATED_PROMPT_TOKENS_ATTRIBUTE = "gen_ai.ollama.estimated_prompt_tokens";
+
+// Records the span of a chat request, if one was selected for it. The messages of the request and
+// the response are only converted to JSON for the spans that capture them.
+class ChatObservation {
+    private final observe:ChatSpan? span;
+    private final boolean captureMessages;
+
+    isolated function init(string modelType, SpanCapture capture) {
+        if capture == NO_SPAN {
+            self.span = ();
+        } else {
+            observe:ChatSpan span = observe:createChatSpan(modelType);
+            span.addProvider("ollama");
+            self.span = span;
+        }
+        self.captureMessages = capture == PAYLOAD_SPAN;
+    }
+
+    isolated function addRequest(ai:ChatMessage[]|ai:ChatMessage messages, ai:ChatCompletionFunctions[] tools,
+            string? stop, float temperature) {
+        observe:ChatSpan? span = self.span;
+        if span is () {
+            return;
+        }
+        if stop is string {
+            span.addStopSequence(stop);
+        }
+        span.addTemperature(temperature);
+        if self.captureMessages {
+            json|ai:Error inputMessage = convertMessageToJson(messages);
+            if inputMessage is json {
+                span.addInputMessages(inputMessage);
+            }
+        }
+        if tools.length() > 0 {
+            span.addTools(tools);
+        }
+    }
+
+    isolated function isRecording() returns boolean => self.span !is ();
+
+    isolated function isCapturingMessages() returns boolean => self.captureMessages;
+
+    isolated function addUsage(OllamaResponse response, ContextSize? contextSize = ()) {
+        observe:ChatSpan? span = self.span;
+        if span is observe:ChatSpan {
+            recordUsage(span, response, contextSize);
+        }
+    }
+
+    // The message is only added if the span captures messages, so callers that have to build the
+    // message may skip it otherwise.
+    isolated function addOutput(ai:ChatAssistantMessage? message) {
+        observe:ChatSpan? span = self.span;
+        if span is () {
+            return;
+        }
+        if self.captureMessages && message is ai:ChatAssistantMessage {
+            span.addOutputMessages(message);
+        }
+        span.addOutputType(observe:TEXT);
+    }
+
+    isolated function close(ai:Error? err = ()) {
+        observe:ChatSpan? span = self.span;
+        if span is observe:ChatSpan {
+            span.close(err);
+        }
+    }
+}
+
+// Records the span of a `generate` request, if one was selected for it. The prompt and the generated
+// value are only converted to JSON for the spans that capture them.
+class GenerateObservation {
+    private final observe:GenerateContentSpan? span;
+    private final boolean captureMessages;
+
+    isolated function init(string modelType, SpanCapture capture) {
+        if capture == NO_SPAN {
+            self.span = ();
+        } else {
+            observe:GenerateContentSpan span = observe:createGenerateContentSpan(modelType);
+            span.addProvider("ollama");
+            self.span = span;
+        }
+        self.captureMessages = capture == PAYLOAD_SPAN;
+    }
+
+    // Image contents are not added to the span, as that would require holding their base64
+    // encodings in memory, which the streamed request body avoids.
+    isolated function addInput(ChatContent chatContent, StructuredOutputStrategy structuredOutput) {
+        observe:GenerateContentSpan? span = self.span;
+        if span is () || !self.captureMessages {
+            return;
+        }
+        map<json> userMessage = {role: ai:USER, "content": chatContent.text};
+        span.addInputMessages(structuredOutput == TOOL_CALL
+            ? [GET_RESULTS_SYSTEM_MESSAGE, userMessage] : [userMessage]);
+    }
+
+    isolated function isRecording() returns boolean => self.span !is ();
+
+    isolated function addUsage(OllamaResponse response, ContextSize? contextSize = ()) {
+        observe:GenerateContentSpan? span = self.span;
+        if span is observe:GenerateContentSpan {
+            recordUsage(span, response, contextSize);
+        }
+    }
+
+    isolated function addOutput(anydata result) {
+        observe:GenerateContentSpan? span = self.span;
+        if span is () {
+            return;
+        }
+        if self.captureMessages {
+            span.addOutputMessages(result.toJson());
+        }
+        span.addOutputType(observe:JSON);
+    }
+
+    isolated function close(ai:Error? err = ()) {
+        observe:GenerateContentSpan? span = self.span;
+        if span is observe:GenerateContentSpan {
+            span.close(err);
+        }
+    }
+}
+
+// The usage setters shared by the spans of chat and `generate` requests.
+type UsageSpan object {
+    public isolated function addInputTokenCount(int inputTokens);
+    public isolated function addOutputTokenCount(int outputTokens);
+    public isolated function addFinishReason(string finishReason);
+};
+
+isolated function recordUsage(UsageSpan span, OllamaResponse response, ContextSize? contextSize) {
+    int? inputTokens = response.prompt_eval_count;
+    if inputTokens is int {
+        span.addInputTokenCount(inputTokens);
+    }
+    int? outputTokens = response.eval_count;
+    if outputTokens is int {
+        span.addOutputTokenCount(outputTokens);
+    }
+    string? finishReason = response.done_reason;
+    if finishReason is string {
+        span.addFinishReason(finishReason);
+    }
+    addResponseAttributes(response, contextSize);
+}
+
+// The ai spans have no setter for attributes other than the standard ones, and adding the attributes to
+// the active span could put them on a span of the caller. The attributes of a response are therefore
+// recorded on a span of the provider, started and finished for the purpose under the active span. This
+// is only done for the requests whose ai span is recorded.
+isolated function recordResponseSpan(map<string> attributes) {
+    int|error spanId = tracing:startSpan(RESPONSE_SPAN_NAME, attributes);
+    if spanId is int {
+        error? _ = tracing:finishSpan(spanId);
+    }
+}
+
+// Records the timings reported by the server, in seconds, the context size chosen for the request and
+// whether the response was served from the response cache.
+isolated function addResponseAttributes(OllamaResponse response, ContextSize? contextSize) {
+    map<string> attributes = {};
+    map<int?> durations = {
+        [TOTAL_DURATION_ATTRIBUTE]: response.total_duration,
+        [LOAD_DURATION_ATTRIBUTE]: response.load_duration,
+        [PROMPT_EVAL_DURATION_ATTRIBUTE]: response.prompt_eval_duration,
+        [EVAL_DURATION_ATTRIBUTE]: response.eval_duration
+    };
+    foreach [string, int?] [attribute, duration] in durations.entries() {
+        if duration is int {
+            attributes[attribute] = toSeconds(duration).toString();
+        }
+    }
+    if contextSize is ContextSize {
+        attributes[NUM_CTX_ATTRIBUTE] = contextSize.numCtx.toString();
+        attributes[ESTIMATED_PROMPT_TOKENS_ATTRIBUTE] = contextSize.estimatedPromptTokens.toString();
+    }
+    if response.cached == true {
+        attributes[RESPONSE_CACHE_HIT_ATTRIBUTE] = "true";
+    }
+    if attributes.length() > 0 {
+        recordResponseSpan(attributes);
+    }
+}
@@ -15,10 +15,11 @@
 // under the License.
 
 import ballerina/ai;
-import ballerina/ai.observe;
 import ballerina/data.jsondata;
 import ballerina/http;
+import ballerina/io;
 import ballerina/jballerina.java;
+import ballerina/time;
 
 const DEFAULT_OLLAMA_SERVICE_URL = "http://localhost:11434";
 const TOOL_ROLE = "tool";
@@ -29,30 +30,45 @@ const TOOL_ROLE = "tool";
 }
 public isolated client class ModelProvider {
     *ai:ModelProvider;
-    private final http:Client ollamaClient;
+    private final ChatExecutor chatExecutor;
     private final string modelType;
-    private final readonly & map<json> modleParameters;
+    private final readonly & RequestTemplate requestTemplate;
     private final float temperature;
+    private final int promptTokenLimit;
+    private final boolean streamGenerate;
+    private final handle? imageCache;
 
     # Initializes the client with the given connection configuration and model configuration.
     #
     # + modelType - The Ollama model name
-    # + serviceUrl - The base URL for the Ollama API endpoint
+    # + serviceUrl - The base URL for the Ollama API endpoint, or the base URLs of several Ollama endpoints
+    # that serve the same model, over which the requests are balanced
     # + modleParameters - Additional model parameters
     # + connectionConfig - Additional connection configuration
+    # + advancedConfig - Advanced configuration for the interaction with the Ollama server
     # + return - `nil` on success, otherwise an `ai:Error`. 
     public isolated function init(@display {label: "Model Type"} string modelType,
-            @display {label: "Service URL"} string serviceUrl = DEFAULT_OLLAMA_SERVICE_URL,
+            @display {label: "Service URL"} string|string[] serviceUrl = DEFAULT_OLLAMA_SERVICE_URL,
             @display {label: "Ollama Model Parameters"} *OllamaModelParameters modleParameters,
-            @display {label: "Connection Configuration"} *ConnectionConfig connectionConfig) returns ai:Error? {
-        http:ClientConfiguration clientConfig = {...connectionConfig};
-        http:Client|error ollamaClient = new (serviceUrl, clientConfig);
-        if ollamaClient is error {
-            return error("Error while connecting to the model", ollamaClient);
+            @display {label: "Connection Configuration"} *ConnectionConfig connectionConfig,
+            @display {label: "Advanced Configuration"} *AdvancedConfig advancedConfig) returns ai:Error? {
+        EndpointPool endpoints = check new (serviceUrl is string ? [serviceUrl] : serviceUrl, connectionConfig,
+                advancedConfig.healthProbeInterval);
+        (readonly & ContextSizing)? contextSizing = check createContextSizing(advancedConfig?.contextSizing);
+        readonly & RequestTemplate requestTemplate = createRequestTemplate(modelType,
+                check getModelParameterMap(modleParameters), advancedConfig?.keepAlive, contextSizing,
+                advancedConfig.structuredOutput);
+        ChatExecutor chatExecutor = check new (modelType, endpoints, connectionConfig.timeout, advancedConfig);
+        if advancedConfig.warmUp {
+            _ = check loadModel(chatExecutor, requestTemplate);
         }
-        self.modleParameters = check getModelParameterMap(modleParameters);
+        self.requestTemplate = requestTemplate;
         self.temperature = modleParameters.temperature;
-        self.ollamaClient = ollamaClient;
+        // Sessions keep their history within the prompt tokens of the largest context size that can be chosen.
+        self.promptTokenLimit = getPromptTokenLimit(contextSizing, modleParameters.numCtx);
+        self.streamGenerate = advancedConfig.streamGenerate;
+        self.imageCache = check createImageCache(advancedConfig?.imageCache);
+        self.chatExecutor = chatExecutor;
         self.modelType = modelType;
     }
 
@@ -64,55 +80,72 @@ public isolated client class ModelProvider {
     # + return - Function to be called, chat response or an error in-case of failures
     isolated remote function chat(ai:ChatMessage[]|ai:ChatUserMessage messages, ai:ChatCompletionFunctions[] tools = [],
             string? stop = ()) returns ai:ChatAssistantMessage|ai:Error {
-        observe:ChatSpan span = observe:createChatSpan(self.modelType);
-        span.addProvider("ollama");
-        if stop is string {
-            span.addStopSequence(stop);
-        }
-        span.addTemperature(self.temperature);
-        json|ai:Error inputMessage = convertMessageToJson(messages);
-        if inputMessage is json {
-            span.addInputMessages(inputMessage);
-        }
-        if tools.length() > 0 {
-            span.addTools(tools);
-        }
+        ChatObservation observation = new (self.modelType, self.chatExecutor.selectSpanCapture());
+        observation.addRequest(messages, tools, stop, self.temperature);
 
         // Ollama chat completion API reference: https://github.com/ollama/ollama/blob/main/docs/api.md#generate-a-chat-completion
-        json|ai:Error requestPayload = self.prepareRequestPayload(messages, tools, stop);
-        if requestPayload is ai:Error {
-            span.close(requestPayload);
-            return requestPayload;
+        ModelMetrics metrics = self.chatExecutor.getMetrics();
+        decimal serializationStartTime = time:monotonicNow();
+        [byte[], ContextSize?]|ai:Error request = self.prepareRequestPayload(messages, tools, stop);
+        metrics.recordSerialization(time:monotonicNow() - serializationStartTime);
+        if request is ai:Error {
+            observation.close(request);
+            return request;
         }
-        OllamaResponse|error response = self.ollamaClient->/api/chat.post(requestPayload);
-        if response is error {
-            ai:Error err = error("Error while connecting to ollama", response);
-            span.close(err);
-            return err;
+        [byte[] requestPayload, ContextSize? contextSize] = request;
+        OllamaResponse|ai:Error response = self.chatExecutor.send(requestPayload);
+        if response is ai:Error {
+            observation.close(response);
+            return response;
         }
 
-        int? inputTokens = response.prompt_eval_count;
-        if inputTokens is int {
-            span.addInputTokenCount(inputTokens);
-        }
-        int? outputTokens = response.eval_count;
-        if outputTokens is int {
-            span.addOutputTokenCount(outputTokens);
+        metrics.recordContextSize(contextSize, response);
+        observation.addUsage(response, contextSize);
+        ai:ChatAssistantMessage result = mapOllamaResponseToAssistantMessage(response);
+        observation.addOutput(result);
+        observation.close();
+        return result;
+    }
+
+    # Sends a chat request to the Ollama model and streams the response as it is generated.
+    # Each value of the returned stream is a delta carrying either a chunk of the assistant text
+    # or the tool calls requested by the model.
+    #
+    # + messages - List of chat messages or user message
+    # + tools - Tool definitions to be used for the tool call
+    # + stop - Stop sequence to stop the completion
+    # + return - Stream of assistant message deltas or an error in-case of failures
+    isolated remote function chatStream(ai:ChatMessage[]|ai:ChatUserMessage messages,
+            ai:ChatCompletionFunctions[] tools = [], string? stop = ())
+            returns stream<ai:ChatAssistantMessage, ai:Error?>|ai:Error {
+        ChatObservation observation = new (self.modelType, self.chatExecutor.selectSpanCapture());
+        observation.addRequest(messages, tools, stop, self.temperature);
+
+        ModelMetrics metrics = self.chatExecutor.getMetrics();
+        decimal startTime = time:monotonicNow();
+        [byte[], ContextSize?]|ai:Error request = self.prepareRequestPayload(messages, tools, stop, true);
+        metrics.recordSerialization(time:monotonicNow() - startTime);
+        if request is ai:Error {
+            observation.close(request);
+            return request;
         }
-        string? finishReason = response.done_reason;
-        if finishReason is string {
-            span.addFinishReason(finishReason);
+        [byte[] requestPayload, ContextSize? contextSize] = request;
+        decimal requestTime = time:monotonicNow();
+        [http:Response, StreamAdmission]|ai:Error response = self.chatExecutor.sendForStream(requestPayload);
+        if response is ai:Error {
+            observation.close(response);
+            return response;
         }
-
-        ai:ChatAssistantMessage|ai:Error result = self.mapOllamaResponseToAssistantMessage(response);
-        if result is ai:Error {
-            span.close(result);
-            return result;
+        stream<byte[], io:Error?>|ai:Error byteStream = getResponseByteStream(response[0]);
+        if byteStream is ai:Error {
+            // The admission is otherwise released when the frame reader is closed.
+            response[1].release(0);
+            observation.close(byteStream);
+            return byteStream;
         }
-        span.addOutputMessages(result);
-        span.addOutputType(observe:TEXT);
-        span.close();
-        return result;
+        ChatResponseStream chatResponseStream = new (new OllamaFrameReader(byteStream, response[1]), observation,
+                metrics, requestTime, contextSize);
+        return new stream<ai:ChatAssistantMessage, ai:Error?>(chatResponseStream);
     }
 
     # Sends a chat request to the model and generates a value that belongs to the type
@@ -126,23 +159,75 @@ public isolated client class ModelProvider {
         'class: "io.ballerina.lib.ai.ollama.Generator"
     } external;
 
-    private isolated function prepareRequestPayload(ai:ChatMessage[]|ai:ChatUserMessage messages,
-            ai:ChatCompletionFunctions[] tools, string? stop) returns json|ai:Error {
-        map<json> options = {...self.modleParameters};
-        if stop is string {
-            options["stop"] = [stop];
-        }
+    # Generates values of the given type for a batch of prompts. The schema is resolved once for the
+    # whole batch and the requests are sent concurrently, up to the configured concurrency.
+    # With admission control, the requests of a batch give way to the other requests of the provider.
+    # The `poolConfig` of the connection configuration should allow at least as many connections.
+    #
+    # + prompts - The prompts to generate values for
+    # + td - Type descriptor specifying the expected type of each value
+    # + config - Batch configuration
+    # + return - The generated value or error for each prompt in the order of the prompts, or an error if the
+    # batch could not be processed
+    isolated remote function generateBatch(ai:Prompt[] prompts, typedesc<json> td, *BatchConfig config)
+            returns BatchResult[]|ai:Error =>
+        generateBatchResponses(self.chatExecutor, self.modelType, self.requestTemplate, self.streamGenerate,
+                self.imageCache, prompts, td, config);
+
+    # Loads the model into memory on every endpoint, so that subsequent requests do not have to wait
+    # for it. The model stays loaded for the configured `keepAlive` duration.
+    #
+    # + return - The time taken to load the model, or an error in-case of failures
+    isolated remote function warmUp() returns WarmUpResult|ai:Error =>
+        loadModel(self.chatExecutor, self.requestTemplate);
+
+    # Starts a conversation with the model. The session keeps the encoded messages of the earlier turns,
+    # so that each turn only encodes its own messages.
+    #
+    # + config - Configuration of the session
+    # + return - The chat session, or an error if the configuration is invalid
+    public isolated function createSession(*ChatSessionConfig config) returns ChatSession|ai:Error =>
+        new (self.chatExecutor, self.modelType, self.requestTemplate, self.temperature, self.promptTokenLimit, config);
+
+    # Returns the load and health of each endpoint of the provider.
+    #
+    # + return - Statistics of the endpoints, in the order of the service URLs
+    public isolated function getEndpointStats() returns EndpointStats[] => self.chatExecutor.getEndpointStats();
+
+    # Returns the statistics of the admission control.
+    #
+    # + return - Admission control statistics, or `()` if admission control is not enabled
+    public isolated function getAdmissionStats() returns AdmissionStats? => self.chatExecutor.getAdmissionStats();
+
+    # Returns the statistics of the image encoding cache.
+    #
+    # + return - Image cache statistics, or `()` if image caching is not enabled
+    public isolated function getImageCacheStats() returns ImageCacheStats? {
+        handle? imageCache = self.imageCache;
+        return imageCache is handle ? getImageCacheStatsFromCache(imageCache) : ();
+    }
+
+    # Returns the statistics of the response cache.
+    #
+    # + return - Response cache statistics, or `()` if response caching is not enabled
+    public isolated function getResponseCacheStats() returns ResponseCacheStats? =>
+        self.chatExecutor.getResponseCacheStats();
 
-        map<json> payload = {
-            model: self.modelType,
-            messages: check self.mapToOllamaRequestMessage(messages),
-            'stream: false,
-            options
-        };
+    // Returns the request payload along with the context size chosen for it, if context sizing is enabled.
+    private isolated function prepareRequestPayload(ai:ChatMessage[]|ai:ChatUserMessage messages,
+            ai:ChatCompletionFunctions[] tools, string? stop, boolean 'stream = false)
+            returns [byte[], ContextSize?]|ai:Error {
+        json[] requestMessages = check self.mapToOllamaRequestMessage(messages);
+        string encodedMessages = requestMessages.toJsonString();
+        string? encodedTools = ();
         if tools.length() > 0 {
-            payload["tools"] = tools.'map(tool => {'type: FUNCTION, 'function: tool});
+            encodedTools = tools.'map(tool => {'type: FUNCTION, 'function: tool}).toJsonString();
         }
-        return payload;
+        ContextSize? contextSize = selectContextSize(self.requestTemplate, encodedMessages, encodedTools ?: "");
+        return [
+            writeChatRequest(self.requestTemplate, encodedMessages, 'stream, encodedTools, stop, contextSize?.numCtx),
+            contextSize
+        ];
     }
 
     private isolated function mapToOllamaRequestMessage(ai:ChatMessage[]|ai:ChatUserMessage messages)
@@ -156,47 +241,64 @@ public isolated client class ModelProvider {
             return transformedMessages;
         }
         foreach ai:ChatMessage message in messages {
-            if message is ai:ChatFunctionMessage {
-                transformedMessages.push({role: TOOL_ROLE, content: message?.content});
-
-            } else if message is ai:ChatUserMessage {
-                transformedMessages.push({
-                    role: ai:USER,
-                    content: check getChatMessageStringContent(message.content)
-                });
-
-            } else if message is ai:ChatSystemMessage {
-                transformedMessages.push({
-                    role: ai:SYSTEM,
-                    content: check getChatMessageStringContent(message.content)
-                });
-            } else if message is ai:ChatAssistantMessage {
-                transformedMessages.push(message);
-            }
+            transformedMessages.push(check mapToOllamaMessage(message));
         }
         return transformedMessages;
     }
+}
 
-    private isolated function mapOllamaResponseToAssistantMessage(OllamaResponse response)
-        returns ai:ChatAssistantMessage {
-        OllamaToolCall[]? toolCalls = response.message?.tool_calls;
-        if toolCalls is OllamaToolCall[] {
-            return self.mapToolCallsToAssistantMessage(toolCalls);
-        }
-        return {role: ai:ASSISTANT, content: response.message.content};
+isolated function mapToOllamaMessage(ai:ChatMessage message) returns json|ai:Error {
+    if message is ai:ChatFunctionMessage {
+        return {role: TOOL_ROLE, content: message?.content};
+    }
+    if message is ai:ChatUserMessage {
+        return {role: ai:USER, content: check getChatMessageStringContent(message.content)};
+    }
+    if message is ai:ChatSystemMessage {
+        return {role: ai:SYSTEM, content: check getChatMessageStringContent(message.content)};
     }
+    return message;
+}
 
-    private isolated function mapToolCallsToAssistantMessage(OllamaToolCall[] ollamaToolCalls)
-        returns ai:ChatAssistantMessage {
-        ai:FunctionCall[] toolCalls = from OllamaToolCall toolCall in ollamaToolCalls
-            select {
-                name: toolCall.'function.name,
-                arguments: toolCall.'function.arguments
-            };
-        return {role: ai:ASSISTANT, toolCalls};
+isolated function mapOllamaResponseToAssistantMessage(OllamaResponse response) returns ai:ChatAssistantMessage {
+    OllamaToolCall[]? toolCalls = response.message?.tool_calls;
+    if toolCalls is OllamaToolCall[] {
+        return {role: ai:ASSISTANT, toolCalls: mapToFunctionCalls(toolCalls)};
     }
+    return {role: ai:ASSISTANT, content: response.message.content};
 }
 
+isolated function createOllamaClient(string serviceUrl, ConnectionConfig connectionConfig)
+        returns http:Client|ai:Error {
+    http:ClientConfiguration clientConfig = {...connectionConfig};
+    http:Client|error ollamaClient = new (serviceUrl, clientConfig);
+    if ollamaClient is error {
+        return error("Error while connecting to the model", ollamaClient);
+    }
+    return ollamaClient;
+}
+
+isolated function loadModel(ChatExecutor chatExecutor, RequestTemplate requestTemplate) returns WarmUpResult|ai:Error {
+    decimal startTime = time:monotonicNow();
+    OllamaResponse[] responses = check chatExecutor.sendLoadRequest(writeLoadRequest(requestTemplate).cloneReadOnly());
+    WarmUpResult result = {elapsedTime: time:monotonicNow() - startTime};
+    // With several endpoints, the slowest load is reported.
+    int[] loadDurations = from OllamaResponse response in responses
+        where response.load_duration is int
+        select <int>response.load_duration;
+    if loadDurations.length() > 0 {
+        result.loadDuration = <decimal>int:max(loadDurations[0], ...loadDurations) / 1000000000;
+    }
+    return result;
+}
+
+isolated function mapToFunctionCalls(OllamaToolCall[] ollamaToolCalls) returns ai:FunctionCall[] =>
+    from OllamaToolCall toolCall in ollamaToolCalls
+    select {
+        name: toolCall.'function.name,
+        arguments: toolCall.'function.arguments
+    };
+
 isolated function getModelParameterMap(OllamaModelParameters modleParameters) returns readonly & map<json>|ai:Error {
     do {
         json options = jsondata:toJson(modleParameters);
@@ -211,41 +313,19 @@ isolated function getChatMessageStringContent(ai:Prompt|string prompt) returns s
     if prompt is string {
         return prompt;
     }
-    string[] & readonly strings = prompt.strings;
-    anydata[] insertions = prompt.insertions;
-    string promptStr = strings[0];
-    foreach int i in 0 ..< insertions.length() {
-        string str = strings[i + 1];
-        anydata insertion = insertions[i];
-
+    int[] kinds = [];
+    foreach anydata insertion in prompt.insertions {
         if insertion is ai:TextDocument|ai:TextChunk {
-            promptStr += insertion.content + " " + str;
-            continue;
-        }
-
-        if insertion is ai:TextDocument[] {
-            foreach ai:TextDocument doc in insertion {
-                promptStr += doc.content + " ";
-            }
-            promptStr += str;
-            continue;
-        }
-
-        if insertion is ai:TextChunk[] {
-            foreach ai:TextChunk doc in insertion {
-                promptStr += doc.content + " ";
-            }
-            promptStr += str;
-            continue;
-        }
-
-        if insertion is ai:Document {
+            kinds.push(DOCUMENT_INSERTION);
+        } else if insertion is ai:TextDocument[]|ai:TextChunk[] {
+            kinds.push(DOCUMENTS_INSERTION);
+        } else if insertion is ai:Document {
             return error ai:Error("Only Text Documents are currently supported.");
+        } else {
+            kinds.push(VALUE_INSERTION);
         }
-
-        promptStr += insertion.toString() + str;
     }
-    return promptStr.trim();
+    return buildPrompt(prompt, kinds, "", []);
 }
 
 isolated function convertMessageToJson(ai:ChatMessage[]|ai:ChatMessage messages) returns json|ai:Error {
@@ -15,14 +15,21 @@
 // under the License.
 
 import ballerina/ai;
-import ballerina/ai.observe;
-import ballerina/http;
+import ballerina/jballerina.java;
+import ballerina/time;
 
 type ResponseSchema record {|
     map<json> schema;
     boolean isOriginallyJsonObject = true;
 |};
 
+// Response schema together with its serialized form and the serialized `getResults` tool definition built from it.
+type ResponseSchemaEntry record {|
+    *ResponseSchema;
+    string encodedTools;
+    string encodedSchema;
+|};
+
 const JSON_CONVERSION_ERROR = "FromJsonStringError";
 const CONVERSION_ERROR = "ConversionError";
 const ERROR_MESSAGE = "Error occurred while attempting to parse the response from the " +
@@ -53,30 +60,98 @@ isolated function generateJsonObjectSchema(map<json> schema) returns ResponseSch
     return {schema: updatedSchema, isOriginallyJsonObject: false};
 }
 
-isolated function parseResponseAsType(string resp,
-        typedesc<anydata> expectedResponseTypedesc, boolean isOriginallyJsonObject) returns anydata|error {
-    if !isOriginallyJsonObject {
-        map<json> respContent = check resp.fromJsonStringWithType();
-        anydata|error result = trap respContent[RESULT].fromJsonWithType(expectedResponseTypedesc);
-        if result is error {
-            return handleParseResponseError(result);
-        }
-        return result;
+// Schema sent as the `format` of a request. The `result` property of a wrapped schema is required,
+// so that the response constrained to it always holds the value.
+isolated function getFormatSchema(ResponseSchema responseSchema) returns map<json> =>
+    responseSchema.isOriginallyJsonObject ? responseSchema.schema : {...responseSchema.schema, required: [RESULT]};
+
+// Binds the content of a response. With the `FORMAT_SCHEMA` strategy, the content is constrained to the
+// response schema, in which a value of a type that is not an object is wrapped like the tool arguments.
+isolated function parseResponseContent(string content, typedesc<anydata> expectedResponseTypedesc,
+        boolean isOriginallyJsonObject, StructuredOutputStrategy structuredOutput) returns anydata|error {
+    if structuredOutput == TOOL_CALL {
+        return parseResponseAsType(content, expectedResponseTypedesc, isOriginallyJsonObject);
+    }
+    json|error value = content.fromJsonString();
+    if value is error {
+        return handleParseResponseError(value);
     }
+    return value is map<json> ? bindToolArguments(value, expectedResponseTypedesc, isOriginallyJsonObject)
+        : bindResponseValue(value, expectedResponseTypedesc);
+}
 
-    anydata|error result = resp.fromJsonStringWithType(expectedResponseTypedesc);
-    if result is error {
-        return handleParseResponseError(result);
+// Binds the text that the model responded with instead of calling the tool. The text is parsed once and
+// the value is bound as it is, as a value of a type that is not an object is not wrapped in the text.
+// Text that is not JSON is bound as a string in that case.
+isolated function parseResponseAsType(string content,
+        typedesc<anydata> expectedResponseTypedesc, boolean isOriginallyJsonObject) returns anydata|error {
+    json|error value = content.fromJsonString();
+    if value is error {
+        return isOriginallyJsonObject ? handleParseResponseError(value)
+            : bindResponseValue(content, expectedResponseTypedesc);
     }
-    return result;
+    return bindResponseValue(value, expectedResponseTypedesc);
+}
+
+// The arguments of the tool call are already parsed, so they are bound without serializing them again.
+// The value of a wrapped schema is taken from the `result` field.
+isolated function bindToolArguments(map<json> arguments, typedesc<anydata> expectedResponseTypedesc,
+        boolean isOriginallyJsonObject) returns anydata|error =>
+    bindResponseValue(isOriginallyJsonObject ? arguments : arguments[RESULT], expectedResponseTypedesc);
+
+isolated function bindResponseValue(json value, typedesc<anydata> expectedResponseTypedesc) returns anydata|error {
+    anydata|error result = bindJsonValue(value, expectedResponseTypedesc);
+    return result is error ? handleParseResponseError(result) : result;
 }
 
+isolated function bindJsonValue(json value, typedesc<anydata> expectedResponseTypedesc) returns anydata|error =
+@java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ResponseDecoder",
+    name: "bindResponseValue"
+} external;
+
 isolated function getExpectedResponseSchema(typedesc<anydata> expectedResponseTypedesc) returns ResponseSchema|ai:Error {
     // Restricted at compile-time for now.
     typedesc<json> td = checkpanic expectedResponseTypedesc.ensureType();
     return generateJsonObjectSchema(check generateJsonSchemaForTypedescAsJson(td));
 }
 
+// Schema generation only depends on the expected type, so the result is cached per type
+// to avoid rebuilding the schema and tool definition on every `generate` call. The entry
+// of a type that the compiler plugin has annotated is used as is.
+isolated function getResponseSchemaEntry(typedesc<json> expectedResponseTypedesc)
+        returns readonly & ResponseSchemaEntry|ai:Error {
+    CompiledResponseSchema? compiledEntry = expectedResponseTypedesc.@CompiledSchema;
+    if compiledEntry is readonly & ResponseSchemaEntry {
+        return compiledEntry;
+    }
+
+    (readonly & ResponseSchemaEntry)? cachedEntry = getCachedResponseSchema(expectedResponseTypedesc);
+    if cachedEntry !is () {
+        return cachedEntry;
+    }
+
+    ResponseSchema responseSchema = check getExpectedResponseSchema(expectedResponseTypedesc);
+    readonly & ResponseSchemaEntry entry = {
+        schema: responseSchema.schema.cloneReadOnly(),
+        isOriginallyJsonObject: responseSchema.isOriginallyJsonObject,
+        encodedTools: getGetResultsTool(responseSchema.schema).toJsonString(),
+        encodedSchema: getFormatSchema(responseSchema).toJsonString()
+    };
+    cacheResponseSchema(expectedResponseTypedesc, entry);
+    return entry;
+}
+
+isolated function getCachedResponseSchema(typedesc<json> expectedResponseTypedesc)
+        returns (readonly & ResponseSchemaEntry)? = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.SchemaCache"
+} external;
+
+isolated function cacheResponseSchema(typedesc<json> expectedResponseTypedesc,
+        readonly & ResponseSchemaEntry entry) = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.SchemaCache"
+} external;
+
 isolated function getGetResultsTool(map<json> parameters) returns map<json>[] =>
     [
     {
@@ -91,64 +166,59 @@ isolated function getGetResultsTool(map<json> parameters) returns map<json>[] =>
 
 type ChatContent record {|
     string text;
-    string[] images;
+    byte[][] images;
 |};
 
-isolated function generateChatCreationContent(ai:Prompt prompt) returns ChatContent|ai:Error {
-    string[] & readonly strings = prompt.strings;
-    anydata[] insertions = prompt.insertions;
-    string promptStr = "";
-    string[] images = [];
-
-    if strings.length() > 0 {
-        promptStr += strings[0];
-    }
-
-    foreach int i in 0 ..< insertions.length() {
-        anydata insertion = insertions[i];
-        string str = strings[i + 1];
-
+// Kinds of prompt insertions, resolved here so that `buildPrompt` can assemble
+// the prompt text in a single pass without re-doing the type tests natively.
+const DOCUMENT_INSERTION = 0;
+const DOCUMENTS_INSERTION = 1;
+const VALUE_INSERTION = 2;
+
+// The directive to call the `getResults` tool is only appended with the `TOOL_CALL` strategy.
+isolated function generateChatCreationContent(ai:Prompt prompt, StructuredOutputStrategy structuredOutput = TOOL_CALL)
+        returns ChatContent|ai:Error {
+    int[] kinds = [];
+    foreach anydata insertion in prompt.insertions {
         if insertion is ai:Document|ai:Chunk {
-            if insertion is ai:TextDocument|ai:TextChunk {
-                promptStr += insertion.content + " ";
-            } else if insertion is ai:ImageDocument {
-                images.push(check getImageBase64(insertion));
-                promptStr += "[img]";
-            } else {
-                return error ai:Error("Only Text and Image Documents are currently supported.");
-            }
+            check validatePromptDocument(insertion);
+            kinds.push(DOCUMENT_INSERTION);
         } else if insertion is (ai:Document|ai:Chunk)[] {
             foreach ai:Document|ai:Chunk doc in insertion {
-                if doc is ai:TextDocument|ai:TextChunk {
-                    promptStr += doc.content + " ";
-                } else if doc is ai:ImageDocument {
-                    images.push(check getImageBase64(doc));
-                    promptStr += "[img]";
-                } else {
-                    return error ai:Error("Only Text and Image Documents are currently supported.");
-                }
+                check validatePromptDocument(doc);
             }
+            kinds.push(DOCUMENTS_INSERTION);
         } else {
-            promptStr += insertion.toString();
+            kinds.push(VALUE_INSERTION);
         }
-        promptStr += str;
     }
 
-    promptStr += addToolDirective();
-    return {text: promptStr.trim(), images};
+    byte[][] images = [];
+    string text = buildPrompt(prompt, kinds, structuredOutput == TOOL_CALL ? addToolDirective() : "", images);
+    return {text, images};
 }
 
-isolated function getImageBase64(ai:ImageDocument doc) returns string|ai:Error {
-    ai:Url|byte[] content = doc.content;
-    if content is ai:Url {
-        return error(
-            "Ollama does not support URL-based images. " +
-            "Please provide the image as a byte array.");
+isolated function validatePromptDocument(ai:Document|ai:Chunk doc) returns ai:Error? {
+    if doc is ai:TextDocument|ai:TextChunk {
+        return;
     }
-
-    return content.toBase64();
+    if doc is ai:ImageDocument {
+        if doc.content is ai:Url {
+            return error(
+                "Ollama does not support URL-based images. " +
+                "Please provide the image as a byte array.");
+        }
+        return;
+    }
+    return error ai:Error("Only Text and Image Documents are currently supported.");
 }
 
+// Appends the content of every image document to `images`.
+isolated function buildPrompt(ai:Prompt prompt, int[] kinds, string suffix, byte[][] images) returns string =
+@java:Method {
+    'class: "io.ballerina.lib.ai.ollama.PromptBuilder"
+} external;
+
 isolated function addToolDirective() returns string {
     return "\nDo not respond with text. You must submit your response by calling the `getResults` tool.";
 }
@@ -185,99 +255,88 @@ isolated function handleParseResponseError(error chatResponseError) returns erro
     return chatResponseError;
 }
 
-isolated function generateLlmResponse(http:Client llmClient, string modelType,
-        readonly & map<json> modleParameters, ai:Prompt prompt,
+isolated function generateLlmResponse(ChatExecutor chatExecutor, string modelType,
+        RequestTemplate requestTemplate, boolean streamGenerate, handle? imageCache, ai:Prompt prompt,
         typedesc<json> expectedResponseTypedesc) returns anydata|ai:Error {
-    observe:GenerateContentSpan span = observe:createGenerateContentSpan(modelType);
-    span.addProvider("ollama");
-
+    GenerateObservation observation = new (modelType, chatExecutor.selectSpanCapture());
     ChatContent chatContent;
-    ResponseSchema responseSchema;
+    ResponseSchemaEntry responseSchema;
     do {
-        chatContent = check generateChatCreationContent(prompt);
-        responseSchema = check getExpectedResponseSchema(expectedResponseTypedesc);
+        chatContent = check generateChatCreationContent(prompt, requestTemplate.structuredOutput);
+        responseSchema = check getResponseSchemaEntry(expectedResponseTypedesc);
     } on fail ai:Error err {
-        span.close(err);
+        observation.close(err);
         return err;
     }
+    return generateForChatContent(observation, chatExecutor, requestTemplate, streamGenerate, imageCache, chatContent,
+            responseSchema, expectedResponseTypedesc);
+}
 
-    map<json>[] tools = getGetResultsTool(responseSchema.schema);
-    // Ollama does not support `tool_choice` to force tool calls, unlike some other providers.
-    // A system message is used to nudge local models into calling the tool instead of
-    // responding with plain text.
-    map<json> systemMessage = {
-        role: ai:SYSTEM,
-        "content": string `You must always call the ${GET_RESULTS_TOOL
-            } tool to submit your response. Never reply with plain text.`
-    };
-    map<json> userMessage = {role: ai:USER, "content": chatContent.text};
-    if chatContent.images.length() > 0 {
-        userMessage["images"] = chatContent.images;
+isolated function generateForChatContent(GenerateObservation observation, ChatExecutor chatExecutor,
+        RequestTemplate requestTemplate, boolean streamGenerate, handle? imageCache, ChatContent chatContent,
+        ResponseSchemaEntry responseSchema, typedesc<json> expectedResponseTypedesc,
+        RequestPriority priority = INTERACTIVE_PRIORITY) returns anydata|ai:Error {
+    ModelMetrics metrics = chatExecutor.getMetrics();
+    decimal serializationStartTime = time:monotonicNow();
+    StructuredOutputStrategy structuredOutput = requestTemplate.structuredOutput;
+    // Images are not included in the estimate, as their number of tokens depends on the model.
+    ContextSize? contextSize = structuredOutput == TOOL_CALL
+        ? selectContextSize(requestTemplate, ENCODED_GET_RESULTS_SYSTEM_MESSAGE, chatContent.text,
+                responseSchema.encodedTools)
+        : selectContextSize(requestTemplate, chatContent.text, responseSchema.encodedSchema);
+    RequestBody request = writeGenerateRequest(requestTemplate, chatContent, streamGenerate, responseSchema,
+            imageCache, contextSize?.numCtx);
+    metrics.recordSerialization(time:monotonicNow() - serializationStartTime);
+    observation.addInput(chatContent, structuredOutput);
+    // A streamed response comes with the value bound while it was read, if any.
+    [OllamaResponse, BoundValue?]|ai:Error received;
+    if streamGenerate {
+        received = postStructuredStreamRequest(chatExecutor, request, responseSchema, expectedResponseTypedesc,
+                structuredOutput, priority);
+    } else {
+        OllamaResponse|ai:Error sent = chatExecutor.send(request, priority);
+        received = sent is ai:Error ? sent : [sent, ()];
     }
-    map<json>[] messages = [systemMessage, userMessage];
-    map<json> request = {
-        messages,
-        tools,
-        model: modelType,
-        'stream: false,
-        options: {...modleParameters}
-    };
-
-    span.addInputMessages(messages);
-    OllamaResponse|error response = llmClient->/api/chat.post(request);
-    if response is error {
-        ai:Error err = error("Error while connecting to ollama", response);
-        span.close(err);
-        return err;
+    if received is ai:Error {
+        observation.close(received);
+        return received;
     }
+    [OllamaResponse, BoundValue?] [response, boundValue] = received;
 
-    int? inputTokens = response.prompt_eval_count;
-    if inputTokens is int {
-        span.addInputTokenCount(inputTokens);
-    }
-    int? outputTokens = response.eval_count;
-    if outputTokens is int {
-        span.addOutputTokenCount(outputTokens);
-    }
-    string? finishReason = response.done_reason;
-    if finishReason is string {
-        span.addFinishReason(finishReason);
-    }
+    metrics.recordContextSize(contextSize, response);
+    observation.addUsage(response, contextSize);
 
     OllamaToolCall[]? toolCalls = response.message?.tool_calls;
-    string responseStr;
-    if toolCalls is OllamaToolCall[] && toolCalls.length() > 0 {
+    decimal parseStartTime = time:monotonicNow();
+    anydata|error res;
+    if boundValue is BoundValue {
+        res = boundValue.value;
+    } else if toolCalls is OllamaToolCall[] && toolCalls.length() > 0 {
         OllamaToolCall tool = toolCalls[0];
-        map<json> arguments = tool.'function.arguments;
-        responseStr = arguments.toJsonString();
+        res = bindToolArguments(tool.'function.arguments, expectedResponseTypedesc,
+                responseSchema.isOriginallyJsonObject);
     } else {
         // Fallback: when the model responds with text instead of a tool call,
         // attempt to parse the content directly. This is common with smaller
         // models that do not reliably use the tool-calling mechanism.
-        string content = stripCodeFences(response.message.content.trim());
+        // A response constrained to the schema is never fenced.
+        string content = response.message.content.trim();
+        if structuredOutput == TOOL_CALL {
+            content = stripCodeFences(content);
+        }
         if content == "" {
             ai:Error err = error(NO_RELEVANT_RESPONSE_FROM_THE_LLM);
-            span.close(err);
+            observation.close(err);
             return err;
         }
-        if responseSchema.isOriginallyJsonObject {
-            responseStr = content;
-        } else {
-            // Parse content as JSON so the wrapped value preserves its
-            // type (array, number, boolean, ...). Fall back to the raw
-            // string for plain string responses.
-            json|error parsed = content.fromJsonString();
-            json wrapped = parsed is json ? parsed : content;
-            responseStr = {[RESULT]: wrapped}.toJsonString();
-        }
+        res = parseResponseContent(content, expectedResponseTypedesc, responseSchema.isOriginallyJsonObject,
+                structuredOutput);
     }
-
-    anydata|error res = parseResponseAsType(responseStr, expectedResponseTypedesc,
-            responseSchema.isOriginallyJsonObject);
+    metrics.recordParsing(time:monotonicNow() - parseStartTime);
     if res is error {
         ai:Error err = error(string `Invalid value returned from the LLM Client, expected: '${
             expectedResponseTypedesc.toBalString()}', found '${res.toBalString()}'`);
-        span.close(err);
+        observation.close(err);
         return err;
     }
 
@@ -285,11 +344,10 @@ isolated function generateLlmResponse(http:Client llmClient, string modelType,
     if result is error {
         ai:Error err = error(string `Invalid value returned from the LLM Client, expected: '${
             expectedResponseTypedesc.toBalString()}', found '${(typeof response).toBalString()}'`);
-        span.close(err);
+        observation.close(err);
         return err;
     }
-    span.addOutputMessages(result.toJson());
-    span.addOutputType(observe:JSON);
-    span.close();
+    observation.addOutput(result);
+    observation.close();
     return result;
 }
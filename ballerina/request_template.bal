@@ -0,0 +1,155 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/io;
+import ballerina/jballerina.java;
+
+const JSON_MEDIA_TYPE = "application/json";
+
+// Ollama does not support `tool_choice` to force tool calls, unlike some other providers.
+// A system message is used to nudge local models into calling the tool instead of
+// responding with plain text.
+final readonly & map<json> GET_RESULTS_SYSTEM_MESSAGE = {
+    role: ai:SYSTEM,
+    "content": string `You must always call the ${GET_RESULTS_TOOL
+        } tool to submit your response. Never reply with plain text.`
+};
+final string ENCODED_GET_RESULTS_SYSTEM_MESSAGE = GET_RESULTS_SYSTEM_MESSAGE.toJsonString();
+
+// Pre-encoded parts of an `/api/chat` request payload that do not change between requests.
+// These are encoded once when the provider is initialized, so that each request only has to
+// encode its own messages and tools. `keepAlive` is the encoded `keep_alive` member together
+// with its leading comma, or empty if the default of the server applies. When context sizing is
+// enabled, `num_ctx` is left out of the options and written for each request instead.
+type RequestTemplate record {|
+    string model;
+    string options;
+    string keepAlive;
+    ContextSizing? contextSizing;
+    StructuredOutputStrategy structuredOutput;
+|};
+
+isolated function createRequestTemplate(string modelType, readonly & map<json> options, string|int? keepAlive = (),
+        (readonly & ContextSizing)? contextSizing = (), StructuredOutputStrategy structuredOutput = TOOL_CALL)
+        returns readonly & RequestTemplate {
+    map<json> templateOptions = options;
+    if contextSizing !is () {
+        templateOptions = map from [string, json] [name, value] in options.entries()
+            where name != NUM_CTX_OPTION
+            select [name, value];
+    }
+    return {
+        model: modelType.toJsonString(),
+        options: templateOptions.toJsonString(),
+        keepAlive: keepAlive is () ? "" : string `,"keep_alive":${keepAlive.toJsonString()}`,
+        contextSizing,
+        structuredOutput
+    };
+}
+
+// Body of an `/api/chat` request. Requests with images are streamed so that the image
+// bytes are base64 encoded chunk by chunk while the body is written.
+type RequestBody byte[]|stream<byte[], io:Error?>;
+
+// Writes the request payload directly from the pre-encoded fragments instead of building
+// a `map<json>` that the HTTP client would have to serialize again.
+isolated function writeChatRequest(RequestTemplate template, string encodedMessages, boolean 'stream,
+        string? encodedTools = (), string? stop = (), int? numCtx = ()) returns byte[] =>
+    (getRequestHead(template, 'stream, stop, numCtx) + encodedMessages + getRequestTail(encodedTools)).toBytes();
+
+// With the `FORMAT_SCHEMA` strategy, the schema is sent as the `format` of the request instead of the
+// `getResults` tool and the system message that asks for it to be called.
+isolated function writeGenerateRequest(RequestTemplate template, ChatContent content, boolean 'stream,
+        ResponseSchemaEntry responseSchema, handle? imageCache = (), int? numCtx = ()) returns RequestBody {
+    boolean usesFormat = template.structuredOutput == FORMAT_SCHEMA;
+    string head = string `${getRequestHead(template, 'stream, numCtx = numCtx)}[${
+        usesFormat ? "" : ENCODED_GET_RESULTS_SYSTEM_MESSAGE + ","}{"role":"${ai:USER}","content":${
+        content.text.toJsonString()}`;
+    string tail = "}]" + (usesFormat ? string `,"format":${responseSchema.encodedSchema}}`
+        : getRequestTail(responseSchema.encodedTools));
+    if content.images.length() == 0 {
+        return (head + tail).toBytes();
+    }
+    RequestBodyStream bodyStream = new ((head + ",\"images\":[").toBytes(), content.images, ("]" + tail).toBytes(),
+        imageCache);
+    return new stream<byte[], io:Error?>(bodyStream);
+}
+
+// Everything up to the value of the `messages` field.
+isolated function getRequestHead(RequestTemplate template, boolean 'stream, string? stop = (), int? numCtx = ())
+        returns string =>
+    string `{"model":${template.model}${template.keepAlive},"stream":${'stream},"options":${
+        getEncodedOptions(template.options, stop, numCtx)},"messages":`;
+
+// A request without messages, which makes Ollama load the model into memory. The server reloads the model
+// when the options of a request differ from the ones it was loaded with, so the model is loaded with the
+// options of the requests that follow, and with the smallest context size when context sizing is enabled.
+isolated function writeLoadRequest(RequestTemplate template) returns byte[] {
+    ContextSizing? contextSizing = template.contextSizing;
+    string options = getEncodedOptions(template.options, (), contextSizing is () ? () : contextSizing.contextSizes[0]);
+    return string `{"model":${template.model}${template.keepAlive},"options":${options},"messages":[]}`.toBytes();
+}
+
+// Everything after the value of the `messages` field.
+isolated function getRequestTail(string? encodedTools) returns string =>
+    encodedTools is string ? string `,"tools":${encodedTools}}` : "}";
+
+// Appends the options that are set per request to the pre-encoded options.
+isolated function getEncodedOptions(string encodedOptions, string? stop, int? numCtx = ()) returns string {
+    string[] members = [];
+    if numCtx is int {
+        members.push(string `"${NUM_CTX_OPTION}":${numCtx}`);
+    }
+    if stop is string {
+        members.push(string `"stop":${[stop].toJsonString()}`);
+    }
+    if members.length() == 0 {
+        return encodedOptions;
+    }
+    string encodedMembers = string:'join(",", ...members);
+    if encodedOptions == "{}" {
+        return string `{${encodedMembers}}`;
+    }
+    return string `${encodedOptions.substring(0, encodedOptions.length() - 1)},${encodedMembers}}`;
+}
+
+// Produces the chunks of a request body whose images are encoded by the native writer
+// while the body is being sent.
+class RequestBodyStream {
+    private final handle writer;
+
+    isolated function init(byte[] head, byte[][] images, byte[] tail, handle? imageCache) {
+        self.writer = createRequestBodyWriter(head, images, tail, imageCache);
+    }
+
+    public isolated function next() returns record {|byte[] value;|}|io:Error? {
+        byte[]? chunk = nextRequestBodyChunk(self.writer);
+        if chunk is byte[] {
+            return {value: chunk};
+        }
+        return;
+    }
+}
+
+isolated function createRequestBodyWriter(byte[] head, byte[][] images, byte[] tail, handle? imageCache)
+        returns handle = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.RequestBodyWriter"
+} external;
+
+isolated function nextRequestBodyChunk(handle writer) returns byte[]? = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.RequestBodyWriter"
+} external;
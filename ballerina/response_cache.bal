@@ -0,0 +1,81 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/data.jsondata;
+import ballerina/jballerina.java;
+
+const RESPONSE_CACHE_HIT_ATTRIBUTE = "gen_ai.ollama.response_cache.hit";
+
+isolated function createResponseCache(ResponseCacheConfig? config) returns handle?|ai:Error {
+    if config is () {
+        return;
+    }
+    if config.capacity <= 0 || config.ttl <= 0d || config.maxFileSizeInBytes <= 0 {
+        return error("Response cache capacity, time to live and file size must be positive");
+    }
+    handle|error responseCache = createResponseCacheStore(config.capacity, <int>(config.ttl * 1000),
+            config?.filePath, config.maxFileSizeInBytes);
+    if responseCache is error {
+        return error("Error while opening the response cache", responseCache);
+    }
+    return responseCache;
+}
+
+// A cached response is marked as such, and reports that no tokens were evaluated for it, so that the
+// usage recorded for the request is not counted again.
+isolated function getResponseFromCache(handle responseCache, byte[] request) returns OllamaResponse? {
+    byte[]? content = getCachedResponse(responseCache, request);
+    if content is () {
+        return;
+    }
+    OllamaResponse|error response = jsondata:parseBytes(content);
+    if response is error {
+        return;
+    }
+    response.prompt_eval_count = 0;
+    response.eval_count = 0;
+    response.cached = true;
+    return response;
+}
+
+isolated function addResponseToCache(handle responseCache, byte[] request, OllamaResponse response) {
+    // Failing to persist a response does not affect the response that was received.
+    error? _ = cacheResponse(responseCache, request, response.toJsonString().toBytes());
+}
+
+isolated function getResponseCacheStatsFromCache(handle responseCache) returns ResponseCacheStats {
+    int[] stats = getResponseCacheStoreStats(responseCache);
+    return {hits: stats[0], fileHits: stats[1], misses: stats[2], entries: stats[3]};
+}
+
+isolated function createResponseCacheStore(int capacity, int ttlInMillis, string? filePath, int maxFileSizeInBytes)
+        returns handle|error = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ResponseCache"
+} external;
+
+isolated function getCachedResponse(handle responseCache, byte[] request) returns byte[]? = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ResponseCache"
+} external;
+
+isolated function cacheResponse(handle responseCache, byte[] request, byte[] response) returns error? =
+@java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ResponseCache"
+} external;
+
+isolated function getResponseCacheStoreStats(handle responseCache) returns int[] = @java:Method {
+    'class: "io.ballerina.lib.ai.ollama.ResponseCache"
+} external;
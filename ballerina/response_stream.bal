@@ -0,0 +1,387 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/data.jsondata;
+import ballerina/http;
+import ballerina/io;
+import ballerina/time;
+
+const byte NEW_LINE = 10;
+
+// Reason reported for a generation that was stopped once a complete value had been received.
+const STOPPED_DONE_REASON = "stop";
+
+// Reads the newline-delimited JSON frames that Ollama emits when `stream` is enabled.
+// Lines are split at the byte level so that multi-byte characters spanning two
+// network chunks are decoded only once the full line is available.
+// The admission of the request, if any, is released when the reader is closed, with the tokens
+// reported in the final frame, or a token for each frame read if the final frame was not read.
+class OllamaFrameReader {
+    private final stream<byte[], io:Error?> byteStream;
+    private final StreamAdmission? admission;
+    private byte[] buffer = [];
+    private int offset = 0;
+    private boolean exhausted = false;
+    private decimal? firstFrameTime = ();
+    private int tokenCount = 0;
+
+    isolated function init(stream<byte[], io:Error?> byteStream, StreamAdmission? admission = ()) {
+        self.byteStream = byteStream;
+        self.admission = admission;
+    }
+
+    // Returns the monotonic time at which the first frame was read, which carries the first token.
+    isolated function getFirstFrameTime() returns decimal? => self.firstFrameTime;
+
+    isolated function next() returns OllamaResponse|ai:Error? {
+        while true {
+            int? lineEnd = self.buffer.indexOf(NEW_LINE, self.offset);
+            if lineEnd is int {
+                byte[] line = self.buffer.slice(self.offset, lineEnd);
+                self.offset = lineEnd + 1;
+                if line.length() > 0 {
+                    return self.parseFrame(line);
+                }
+                continue;
+            }
+
+            if self.exhausted {
+                if self.offset >= self.buffer.length() {
+                    return;
+                }
+                byte[] line = self.buffer.slice(self.offset);
+                self.offset = self.buffer.length();
+                return self.parseFrame(line);
+            }
+
+            record {|byte[] value;|}|io:Error? chunk = self.byteStream.next();
+            if chunk is io:Error {
+                return error("Error while reading the response stream from ollama", chunk);
+            }
+            if chunk is () {
+                self.exhausted = true;
+                continue;
+            }
+            self.buffer = self.buffer.slice(self.offset);
+            self.offset = 0;
+            self.buffer.push(...chunk.value);
+        }
+    }
+
+    private isolated function parseFrame(byte[] line) returns OllamaResponse|ai:Error {
+        if self.firstFrameTime is () {
+            self.firstFrameTime = time:monotonicNow();
+        }
+        OllamaResponse|ai:Error frame = parseOllamaFrame(line);
+        if frame is OllamaResponse {
+            self.tokenCount = frame.done == true
+                ? (frame.prompt_eval_count ?: 0) + (frame.eval_count ?: 0) : self.tokenCount + 1;
+        }
+        return frame;
+    }
+
+    // Closing the underlying stream drops the connection, which makes Ollama stop generating.
+    isolated function close() returns ai:Error? {
+        StreamAdmission? admission = self.admission;
+        if admission is StreamAdmission {
+            admission.release(self.tokenCount);
+        }
+        io:Error? err = self.byteStream.close();
+        if err is io:Error {
+            return error("Error while closing the response stream from ollama", err);
+        }
+    }
+}
+
+// Iterator backing the stream returned by `ModelProvider.chatStream`. The span is kept
+// open until the final frame arrives so that it records the token counts and `done_reason`.
+class ChatResponseStream {
+    private final OllamaFrameReader frameReader;
+    private final ChatObservation observation;
+    private final ModelMetrics metrics;
+    private final decimal requestTime;
+    private final ContextSize? contextSize;
+    private string content = "";
+    private ai:FunctionCall[] toolCalls = [];
+    private boolean completed = false;
+
+    isolated function init(OllamaFrameReader frameReader, ChatObservation observation, ModelMetrics metrics,
+            decimal requestTime, ContextSize? contextSize = ()) {
+        self.frameReader = frameReader;
+        self.observation = observation;
+        self.metrics = metrics;
+        self.requestTime = requestTime;
+        self.contextSize = contextSize;
+    }
+
+    public isolated function next() returns record {|ai:ChatAssistantMessage value;|}|ai:Error? {
+        while !self.completed {
+            OllamaResponse|ai:Error? frame = self.frameReader.next();
+            if frame is ai:Error {
+                self.complete(frame);
+                return frame;
+            }
+            if frame is () {
+                self.complete();
+                return;
+            }
+
+            ai:ChatAssistantMessage? delta = self.accumulate(frame);
+            if frame.done == true {
+                self.metrics.recordContextSize(self.contextSize, frame);
+                self.observation.addUsage(frame, self.contextSize);
+                self.metrics.recordResponse(frame,
+                        timeToFirstToken = getTimeToFirstToken(self.frameReader, self.requestTime));
+                self.complete();
+            }
+            if delta is ai:ChatAssistantMessage {
+                return {value: delta};
+            }
+        }
+        return;
+    }
+
+    public isolated function close() returns ai:Error? {
+        self.complete();
+    }
+
+    private isolated function accumulate(OllamaResponse frame) returns ai:ChatAssistantMessage? {
+        OllamaToolCall[]? ollamaToolCalls = frame.message?.tool_calls;
+        if ollamaToolCalls is OllamaToolCall[] && ollamaToolCalls.length() > 0 {
+            ai:FunctionCall[] toolCalls = mapToFunctionCalls(ollamaToolCalls);
+            self.toolCalls.push(...toolCalls);
+            return {role: ai:ASSISTANT, toolCalls};
+        }
+
+        string content = frame.message.content;
+        if content == "" {
+            return;
+        }
+        self.content += content;
+        return {role: ai:ASSISTANT, content};
+    }
+
+    private isolated function complete(ai:Error? err = ()) {
+        if self.completed {
+            return;
+        }
+        self.completed = true;
+        ai:Error? closeErr = self.frameReader.close();
+        if err is ai:Error {
+            self.observation.close(err);
+            return;
+        }
+        if closeErr is ai:Error {
+            self.observation.close(closeErr);
+            return;
+        }
+
+        ai:ChatAssistantMessage? output = ();
+        if self.observation.isCapturingMessages() {
+            output = self.toolCalls.length() > 0
+                ? {role: ai:ASSISTANT, toolCalls: self.toolCalls.clone()}
+                : {role: ai:ASSISTANT, content: self.content};
+        }
+        self.observation.addOutput(output);
+        self.observation.close();
+    }
+}
+
+isolated function getResponseByteStream(http:Response response) returns stream<byte[], io:Error?>|ai:Error {
+    if response.statusCode != http:STATUS_OK {
+        string|error payload = response.getTextPayload();
+        return error(string `Error while connecting to ollama, received status code: ${response.statusCode}`,
+                payload = payload is string ? payload : ());
+    }
+    stream<byte[], io:Error?>|http:ClientError byteStream = response.getByteStream();
+    if byteStream is http:ClientError {
+        return error("Error while reading the response stream from ollama", byteStream);
+    }
+    return byteStream;
+}
+
+isolated function parseOllamaFrame(byte[] line) returns OllamaResponse|ai:Error {
+    OllamaResponse|OllamaErrorFrame|error frame = jsondata:parseBytes(line);
+    if frame is error {
+        return error("Error while parsing the response stream from ollama", frame);
+    }
+    if frame is OllamaErrorFrame {
+        return error(string `Error received from ollama: ${frame.'error}`);
+    }
+    return frame;
+}
+
+const int OPEN_BRACE = 123;
+const int CLOSE_BRACE = 125;
+const int OPEN_BRACKET = 91;
+const int CLOSE_BRACKET = 93;
+const int QUOTE = 34;
+const int BACKSLASH = 92;
+
+// Scans streamed text for complete top-level JSON objects or arrays. String and escape
+// state is tracked so that brackets inside string literals do not affect the nesting depth.
+// Each chunk is scanned once, and only the parts of the value being scanned are kept, so
+// that the scanning time is linear in the length of the text.
+class JsonValueScanner {
+    private string chunk = "";
+    private int[] codePoints = [];
+    private int position = 0;
+    // Parts of the value being scanned that were received in the earlier chunks.
+    private string[] valueParts = [];
+    private int valueStart = 0;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+
+    // Scans the chunk and returns the next complete value, if any. Call again with an
+    // empty chunk to continue scanning after a value that was rejected by the caller.
+    isolated function feed(string chunk) returns string? {
+        if chunk != "" {
+            if self.depth > 0 {
+                self.valueParts.push(self.chunk.substring(self.valueStart));
+                self.valueStart = 0;
+            }
+            self.chunk = chunk;
+            self.codePoints = chunk.toCodePointInts();
+            self.position = 0;
+        }
+        int length = self.codePoints.length();
+        while self.position < length {
+            int c = self.codePoints[self.position];
+            self.position += 1;
+            if self.depth == 0 {
+                if c == OPEN_BRACE || c == OPEN_BRACKET {
+                    self.valueStart = self.position - 1;
+                    self.depth = 1;
+                }
+                continue;
+            }
+
+            if self.inString {
+                if self.escaped {
+                    self.escaped = false;
+                } else if c == BACKSLASH {
+                    self.escaped = true;
+                } else if c == QUOTE {
+                    self.inString = false;
+                }
+                continue;
+            }
+
+            if c == QUOTE {
+                self.inString = true;
+            } else if c == OPEN_BRACE || c == OPEN_BRACKET {
+                self.depth += 1;
+            } else if c == CLOSE_BRACE || c == CLOSE_BRACKET {
+                self.depth -= 1;
+                if self.depth == 0 {
+                    string value = string:'join("", ...self.valueParts)
+                        + self.chunk.substring(self.valueStart, self.position);
+                    self.valueParts = [];
+                    return value;
+                }
+            }
+        }
+        return;
+    }
+}
+
+// Streams a structured `generate` request and stops reading as soon as either a tool call
+// or a complete JSON value that binds to the expected type has been received. The value that
+// was bound while streaming is returned along with the response, so that it is not bound again.
+isolated function postStructuredStreamRequest(ChatExecutor chatExecutor, RequestBody request,
+        ResponseSchemaEntry responseSchema, typedesc<json> expectedResponseTypedesc,
+        StructuredOutputStrategy structuredOutput, RequestPriority priority)
+        returns [OllamaResponse, BoundValue?]|ai:Error {
+    decimal requestTime = time:monotonicNow();
+    [http:Response, StreamAdmission] [response, admission] = check chatExecutor.sendForStream(request, priority);
+    stream<byte[], io:Error?>|ai:Error byteStream = getResponseByteStream(response);
+    if byteStream is ai:Error {
+        // The admission is otherwise released when the frame reader is closed.
+        admission.release(0);
+        return byteStream;
+    }
+    OllamaFrameReader frameReader = new (byteStream, admission);
+    [OllamaResponse, BoundValue?]|ai:Error result = readStructuredResponse(frameReader, responseSchema,
+            expectedResponseTypedesc, structuredOutput);
+    // Failing to close the connection does not invalidate the value that was already read.
+    ai:Error? _ = frameReader.close();
+    if result is [OllamaResponse, BoundValue?] {
+        // The server timings are only available when the final frame was read.
+        chatExecutor.getMetrics().recordResponse(result[0],
+                timeToFirstToken = getTimeToFirstToken(frameReader, requestTime));
+    }
+    return result;
+}
+
+isolated function getTimeToFirstToken(OllamaFrameReader frameReader, decimal requestTime) returns decimal? {
+    decimal? firstFrameTime = frameReader.getFirstFrameTime();
+    return firstFrameTime is decimal ? firstFrameTime - requestTime : ();
+}
+
+// Value bound to the expected type from the content of a response.
+type BoundValue record {|
+    anydata value;
+|};
+
+// When reading stops at a complete value, the final frame with the usage of the request is not
+// received. The response then reports the generated tokens counted from the frames read so far,
+// as Ollama streams a token per frame, and that the generation was stopped.
+isolated function readStructuredResponse(OllamaFrameReader frameReader, ResponseSchemaEntry responseSchema,
+        typedesc<json> expectedResponseTypedesc, StructuredOutputStrategy structuredOutput = TOOL_CALL)
+        returns [OllamaResponse, BoundValue?]|ai:Error {
+    JsonValueScanner scanner = new;
+    string[] contentParts = [];
+    string model = "";
+    int frameCount = 0;
+    OllamaResponse|ai:Error? frame = frameReader.next();
+    while frame is OllamaResponse {
+        model = frame.model;
+        OllamaToolCall[]? toolCalls = frame.message?.tool_calls;
+        if frame.done == true || (toolCalls is OllamaToolCall[] && toolCalls.length() > 0) {
+            frame.message.content = string:'join("", ...contentParts) + frame.message.content;
+            return [frame, ()];
+        }
+
+        frameCount += 1;
+        string chunk = frame.message.content;
+        contentParts.push(chunk);
+        string? candidate = scanner.feed(chunk);
+        while candidate is string {
+            anydata|error value = parseResponseContent(candidate, expectedResponseTypedesc,
+                    responseSchema.isOriginallyJsonObject, structuredOutput);
+            if value !is error {
+                return [
+                    {
+                        model,
+                        message: {role: ai:ASSISTANT, content: candidate},
+                        done: false,
+                        done_reason: STOPPED_DONE_REASON,
+                        eval_count: frameCount
+                    },
+                    {value}
+                ];
+            }
+            candidate = scanner.feed("");
+        }
+        frame = frameReader.next();
+    }
+    if frame is ai:Error {
+        return frame;
+    }
+    return [{model, message: {role: ai:ASSISTANT, content: string:'join("", ...contentParts)}}, ()];
+}
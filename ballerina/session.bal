@@ -0,0 +1,189 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/time;
+
+// A message in its request encoding, along with its role in the request and its estimated number of tokens.
+type EncodedMessage readonly & record {|
+    string role;
+    string encoding;
+    int tokenCount;
+|};
+
+# A conversation with an Ollama model. The session keeps the messages of the earlier turns in their request
+# encoding, so that each turn only encodes its own messages and the response, instead of the whole history.
+# When the history approaches the context window of the model, the oldest messages are dropped.
+# The turns of a session are expected to be sent one at a time.
+public isolated client class ChatSession {
+    private final ChatExecutor chatExecutor;
+    private final string modelType;
+    private final readonly & RequestTemplate requestTemplate;
+    private final float temperature;
+    private final boolean trimHistory;
+    private final int tokenLimit;
+    private EncodedMessage[] history = [];
+    private int historyTokenCount = 0;
+
+    isolated function init(ChatExecutor chatExecutor, string modelType, readonly & RequestTemplate requestTemplate,
+            float temperature, int promptTokenLimit, ChatSessionConfig config) returns ai:Error? {
+        float contextUsageLimit = config.contextUsageLimit;
+        if !(contextUsageLimit > 0.0 && contextUsageLimit <= 1.0) {
+            return error("The context usage limit must be greater than 0 and at most 1");
+        }
+        self.chatExecutor = chatExecutor;
+        self.modelType = modelType;
+        self.requestTemplate = requestTemplate;
+        self.temperature = temperature;
+        self.trimHistory = config.trimHistory;
+        self.tokenLimit = <int>(<float>promptTokenLimit * contextUsageLimit);
+    }
+
+    # Sends the given messages along with the history of the session. The messages and the response are
+    # added to the history when the request succeeds. Only the messages of the turn are added to the span.
+    #
+    # + messages - Messages of the turn
+    # + tools - Tool definitions to be used for the tool call
+    # + stop - Stop sequence to stop the completion
+    # + return - Function to be called, chat response or an error in-case of failures
+    isolated remote function chat(ai:ChatMessage[]|ai:ChatMessage messages, ai:ChatCompletionFunctions[] tools = [],
+            string? stop = ()) returns ai:ChatAssistantMessage|ai:Error {
+        ChatObservation observation = new (self.modelType, self.chatExecutor.selectSpanCapture());
+        observation.addRequest(messages, tools, stop, self.temperature);
+
+        ModelMetrics metrics = self.chatExecutor.getMetrics();
+        decimal serializationStartTime = time:monotonicNow();
+        TokenEstimator tokenEstimator = getTokenEstimator(self.requestTemplate);
+        EncodedMessage[]|ai:Error turnMessages = encodeMessages(messages is ai:ChatMessage ? [messages] : messages,
+                tokenEstimator);
+        if turnMessages is ai:Error {
+            observation.close(turnMessages);
+            return turnMessages;
+        }
+        [string, int] [encodedMessages, promptTokenCount] = self.prepareHistory(turnMessages);
+        string? encodedTools = tools.length() > 0
+            ? tools.'map(tool => {'type: FUNCTION, 'function: tool}).toJsonString() : ();
+        // The size of the history is already known, so only the tools have to be estimated.
+        ContextSizing? contextSizing = self.requestTemplate.contextSizing;
+        ContextSize? contextSize = contextSizing is () ? () : chooseContextSize(contextSizing,
+                promptTokenCount + (encodedTools is string ? tokenEstimator(encodedTools) : 0));
+        byte[] requestPayload = writeChatRequest(self.requestTemplate, encodedMessages, false, encodedTools, stop,
+                contextSize?.numCtx);
+        metrics.recordSerialization(time:monotonicNow() - serializationStartTime);
+        OllamaResponse|ai:Error response = self.chatExecutor.send(requestPayload);
+        if response is ai:Error {
+            observation.close(response);
+            return response;
+        }
+
+        metrics.recordContextSize(contextSize, response);
+        observation.addUsage(response, contextSize);
+        ai:ChatAssistantMessage result = mapOllamaResponseToAssistantMessage(response);
+        EncodedMessage|ai:Error encodedResult = encodeMessage(result, tokenEstimator);
+        if encodedResult is ai:Error {
+            observation.close(encodedResult);
+            return encodedResult;
+        }
+        self.addToHistory([...turnMessages, encodedResult].cloneReadOnly());
+        observation.addOutput(result);
+        observation.close();
+        return result;
+    }
+
+    # Returns the number of messages in the history of the session.
+    #
+    # + return - Number of messages
+    public isolated function getHistoryLength() returns int {
+        lock {
+            return self.history.length();
+        }
+    }
+
+    # Removes all messages from the history of the session.
+    public isolated function clear() {
+        lock {
+            self.history = [];
+            self.historyTokenCount = 0;
+        }
+    }
+
+    // Trims the history to make room for the messages of the turn, and returns the encoded messages of the
+    // request along with their estimated number of tokens. The oldest messages are dropped first. System
+    // messages are kept, and the tool results that follow a dropped message are dropped along with it, so
+    // that no result is left without its call.
+    private isolated function prepareHistory(EncodedMessage[] turnMessages) returns [string, int] {
+        int turnTokenCount = 0;
+        foreach EncodedMessage message in turnMessages {
+            turnTokenCount += message.tokenCount;
+        }
+        // The encodings of the history and of the turn are joined once, as building the history up string by
+        // string would copy it again on every turn.
+        string[] historyEncodings;
+        int historyTokenCount;
+        lock {
+            if self.trimHistory && self.historyTokenCount + turnTokenCount > self.tokenLimit {
+                EncodedMessage[] keptMessages = [];
+                int tokenCount = self.historyTokenCount;
+                boolean isDroppingResults = false;
+                foreach EncodedMessage message in self.history {
+                    boolean isDropped = message.role != ai:SYSTEM
+                        && (tokenCount + turnTokenCount > self.tokenLimit
+                            || isDroppingResults && message.role == TOOL_ROLE);
+                    isDroppingResults = isDropped;
+                    if isDropped {
+                        tokenCount -= message.tokenCount;
+                    } else {
+                        keptMessages.push(message);
+                    }
+                }
+                self.history = keptMessages;
+                self.historyTokenCount = tokenCount;
+            }
+            historyEncodings = (from EncodedMessage message in self.history select message.encoding).cloneReadOnly();
+            historyTokenCount = self.historyTokenCount;
+        }
+        string[] encodings = [...historyEncodings, ...(from EncodedMessage message in turnMessages
+            select message.encoding)];
+        return [string `[${string:'join(",", ...encodings)}]`, historyTokenCount + turnTokenCount];
+    }
+
+    private isolated function addToHistory(readonly & EncodedMessage[] messages) {
+        lock {
+            foreach EncodedMessage message in messages {
+                self.history.push(message);
+                self.historyTokenCount += message.tokenCount;
+            }
+        }
+    }
+}
+
+isolated function encodeMessages(ai:ChatMessage[] messages, TokenEstimator tokenEstimator)
+        returns EncodedMessage[]|ai:Error {
+    EncodedMessage[] encodedMessages = [];
+    foreach ai:ChatMessage message in messages {
+        encodedMessages.push(check encodeMessage(message, tokenEstimator));
+    }
+    return encodedMessages;
+}
+
+isolated function encodeMessage(ai:ChatMessage message, TokenEstimator tokenEstimator)
+        returns EncodedMessage|ai:Error {
+    string encoding = (check mapToOllamaMessage(message)).toJsonString();
+    string role = message is ai:ChatFunctionMessage ? TOOL_ROLE
+        : message is ai:ChatSystemMessage ? ai:SYSTEM
+        : message is ai:ChatUserMessage ? ai:USER : ai:ASSISTANT;
+    return {role, encoding, tokenCount: tokenEstimator(encoding)};
+}
@@ -15,6 +15,7 @@
 // under the License.
 
 import ballerina/http;
+import ballerina/lang.runtime;
 import ballerina/test;
 
 service /llm on new http:Listener(8080) {
@@ -63,4 +64,103 @@ service /llm on new http:Listener(8080) {
         }
         return getTestServiceResponse(content);
     }
+
+    resource function post api/embed(map<json> payload) returns OllamaEmbedResponse|error {
+        test:assertEquals(payload.model, "nomic-embed-text");
+        test:assertEquals(payload.truncate, false);
+        test:assertEquals(payload.keep_alive, "10m");
+        string[] inputs = check payload.input.ensureType();
+        test:assertTrue(inputs.length() <= 2, "Expected at most 2 inputs per request");
+        lock {
+            embedRequestCount += 1;
+        }
+        return {
+            model: "nomic-embed-text",
+            embeddings: from string input in inputs select [<float>input.length(), 1.0],
+            prompt_eval_count: inputs.length() * 3
+        };
+    }
+}
+
+service /llm on new http:Listener(8081) {
+    resource function post api/chat(map<json> payload) returns http:Response|error {
+        test:assertEquals(payload.'stream, true);
+        json[] messages = check payload.messages.ensureType();
+        string content = check messages[messages.length() - 1].content.ensureType();
+
+        string[] frames = from json frame in getStreamedChatFrames(content)
+            select frame.toJsonString();
+        http:Response response = new;
+        response.setTextPayload(string:'join("\n", ...frames), "application/x-ndjson");
+        return response;
+    }
+}
+
+isolated int chatRequestCount = 0;
+isolated int embedRequestCount = 0;
+isolated json lastKeepAlive = ();
+isolated json lastOptions = ();
+isolated map<json> lastFormatRequest = {};
+isolated json[] lastMessages = [];
+
+service /llm on new http:Listener(8082) {
+    resource function post api/chat(map<json> payload) returns OllamaResponse|error {
+        json keepAlive = payload["keep_alive"];
+        json options = payload["options"];
+        lock {
+            chatRequestCount += 1;
+            lastKeepAlive = keepAlive.cloneReadOnly();
+            lastOptions = options.cloneReadOnly();
+        }
+        json[] messages = check payload.messages.ensureType();
+        lock {
+            lastMessages = messages.cloneReadOnly();
+        }
+        if messages.length() == 0 {
+            // A request without messages only loads the model.
+            return {
+                model: "llama2",
+                message: {role: "assistant", content: ""},
+                done: true,
+                done_reason: "load",
+                load_duration: 1500000000
+            };
+        }
+        json format = payload["format"];
+        if format !is () {
+            lock {
+                lastFormatRequest = payload.cloneReadOnly();
+            }
+            return getFormattedResponse(format);
+        }
+        // Keeps the request in flight long enough for identical requests to be coalesced.
+        runtime:sleep(0.5);
+        string content = check messages[messages.length() - 1].content.ensureType();
+        return {
+            model: "llama2",
+            message: {role: "assistant", content: string `Reply to: ${content}`},
+            done: true,
+            prompt_eval_count: 20,
+            eval_count: 10,
+            total_duration: 700000000,
+            prompt_eval_duration: 100000000,
+            eval_duration: 500000000
+        };
+    }
+
+    resource function get api/version() returns json => {version: "0.9.0"};
+}
+
+// Responds to a request of the `FORMAT_SCHEMA` strategy with a value that matches the schema. The
+// request is checked by the test, from the copy kept by the service.
+isolated function getFormattedResponse(json format) returns OllamaResponse|error {
+    map<json> properties = check format.properties.ensureType();
+    json value = properties.hasKey(RESULT) ? {result: [8, 9]} : {rating: 8, comment: "Great blog!"};
+    return {
+        model: "llama2",
+        message: {role: "assistant", content: value.toJsonString()},
+        done: true,
+        prompt_eval_count: 20,
+        eval_count: 10
+    };
 }
@@ -14,6 +14,8 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/ai;
+
 isolated function getExpectedParameterSchema(string message) returns map<json> {
     if message.startsWith("Evaluate this") {
         return expectedParameterSchemaStringForRateBlog6;
@@ -35,6 +37,22 @@ isolated function getExpectedParameterSchema(string message) returns map<json> {
         return expectedParameterSchemaStringForRateBlog3;
     }
 
+    if message.startsWith("Describe a famous cricketer") {
+        return expectedParameterSchemaForInlineRecord;
+    }
+
+    if message.startsWith("Pair a cricketer with their age") {
+        return expectedParameterSchemaForTuple;
+    }
+
+    if message.startsWith("Rate each cricketer") {
+        return expectedParameterSchemaForMapArray;
+    }
+
+    if message.startsWith("Name the products in stock") {
+        return expectedParameterSchemaForProductNameUnion;
+    }
+
     if message.startsWith("Tell me") {
         return expectedParameterSchemaStringForRateBlog4;
     }
@@ -55,6 +73,10 @@ isolated function getExpectedParameterSchema(string message) returns map<json> {
         return expectedParameterSchemaStringForRateBlog9;
     }
 
+    if message.startsWith("Describe the following images.") {
+        return expectedParameterSchemaStringForRateBlog9;
+    }
+
     if message.startsWith("How do you rate this blog") {
         return expectedParameterSchemaStringForRateBlog7;
     }
@@ -202,6 +224,22 @@ isolated function getTheMockLLMResult(string message) returns map<json> {
         return {"result": 2};
     }
 
+    if message.startsWith("Describe a famous cricketer") {
+        return {"name": "Virat Kohli", "age": 33};
+    }
+
+    if message.startsWith("Pair a cricketer with their age") {
+        return {"result": ["Virat Kohli", 33]};
+    }
+
+    if message.startsWith("Rate each cricketer") {
+        return {"result": [{"Virat Kohli": 9}, {"Kane Williamson": 8}]};
+    }
+
+    if message.startsWith("Name the products in stock") {
+        return {"result": [{"name": "Laptop"}, {"name": "Phone"}]};
+    }
+
     if message.startsWith("Tell me") {
         return {"result": [{"name": "Virat Kohli", "age": 33}, {"name": "Kane Williamson", "age": 30}]};
     }
@@ -252,6 +290,10 @@ isolated function getTheMockLLMResult(string message) returns map<json> {
         return {"result": "This is a sample image description."};
     }
 
+    if message.startsWith("Describe the following images.") {
+        return {"result": "These are sample image descriptions."};
+    }
+
     if message.startsWith("Name a random world class cricketer in India") {
         return {"result": {"name": "Sanga"}};
     }
@@ -350,6 +392,26 @@ isolated function getExpectedPrompt(string message) returns string {
         return expectedPromptStringForRateBlog3;
     }
 
+    if message.startsWith("Describe a famous cricketer") {
+        return "Describe a famous cricketer\nDo not respond with text. " +
+        "You must submit your response by calling the `getResults` tool.";
+    }
+
+    if message.startsWith("Pair a cricketer with their age") {
+        return "Pair a cricketer with their age\nDo not respond with text. " +
+        "You must submit your response by calling the `getResults` tool.";
+    }
+
+    if message.startsWith("Rate each cricketer") {
+        return "Rate each cricketer\nDo not respond with text. " +
+        "You must submit your response by calling the `getResults` tool.";
+    }
+
+    if message.startsWith("Name the products in stock") {
+        return "Name the products in stock\nDo not respond with text. " +
+        "You must submit your response by calling the `getResults` tool.";
+    }
+
     if message.startsWith("Tell me") {
         return expectedPromptStringForRateBlog4;
     }
@@ -393,6 +455,11 @@ isolated function getExpectedPrompt(string message) returns string {
         "You must submit your response by calling the `getResults` tool.";
     }
 
+    if message.startsWith("Describe the following images.") {
+        return "Describe the following images.[img] and [img].\nDo not respond with text. " +
+        "You must submit your response by calling the `getResults` tool.";
+    }
+
     if message.startsWith("Name 10 world class cricketers in India") {
         return "Name 10 world class cricketers in India\nDo not respond with text. " +
         "You must submit your response by calling the `getResults` tool.";
@@ -535,5 +602,176 @@ isolated function getExpectedImages(string message) returns string[][] {
         return [[sampleStringData]];
     }
 
+    if message.startsWith("Describe the following images.") {
+        return [[largeBinaryData.toBase64(), sampleStringData]];
+    }
+
     return [];
 }
+
+isolated function getStreamedChatFrames(string message) returns json[] {
+    if message.startsWith("Stream a review") {
+        // The model keeps chatting after the JSON value, which only parses if reading stops early.
+        json[] frames = from string token in ["Here you go: ", "{\"rating\": 8, ",
+                "\"comment\": \"Great {blog}!\"}", " Let me know if you need [more", " help."]
+            select {model: "llama2", message: {role: "assistant", content: token}, done: false};
+        frames.push({model: "llama2", message: {role: "assistant", content: ""}, done: true, done_reason: "stop"});
+        return frames;
+    }
+
+    if message.startsWith("What is the weather") {
+        return [
+            {
+                model: "llama2",
+                message: {
+                    role: "assistant",
+                    content: "",
+                    tool_calls: [{'function: {name: "getWeather", arguments: {city: "Colombo"}}}]
+                },
+                done: false
+            },
+            {
+                model: "llama2",
+                message: {role: "assistant", content: ""},
+                done: true,
+                done_reason: "stop",
+                prompt_eval_count: 12,
+                eval_count: 8
+            }
+        ];
+    }
+
+    json[] frames = from string token in ["Hello", ", how can ", "I help?"]
+        select {model: "llama2", message: {role: "assistant", content: token}, done: false};
+    frames.push({
+        model: "llama2",
+        message: {role: "assistant", content: ""},
+        done: true,
+        done_reason: "stop",
+        prompt_eval_count: 10,
+        eval_count: 3
+    });
+    return frames;
+}
+
+// Reference implementations that build the prompt with string concatenation. Used to verify
+// that the native prompt builder produces identical output.
+isolated function getChatMessageStringContentByConcatenation(ai:Prompt prompt) returns string|ai:Error {
+    string[] & readonly strings = prompt.strings;
+    anydata[] insertions = prompt.insertions;
+    string promptStr = strings[0];
+    foreach int i in 0 ..< insertions.length() {
+        string str = strings[i + 1];
+        anydata insertion = insertions[i];
+
+        if insertion is ai:TextDocument|ai:TextChunk {
+            promptStr += insertion.content + " " + str;
+            continue;
+        }
+
+        if insertion is ai:TextDocument[] {
+            foreach ai:TextDocument doc in insertion {
+                promptStr += doc.content + " ";
+            }
+            promptStr += str;
+            continue;
+        }
+
+        if insertion is ai:TextChunk[] {
+            foreach ai:TextChunk doc in insertion {
+                promptStr += doc.content + " ";
+            }
+            promptStr += str;
+            continue;
+        }
+
+        if insertion is ai:Document {
+            return error ai:Error("Only Text Documents are currently supported.");
+        }
+
+        promptStr += insertion.toString() + str;
+    }
+    return promptStr.trim();
+}
+
+isolated function generateChatCreationContentByConcatenation(ai:Prompt prompt) returns ChatContent|ai:Error {
+    string[] & readonly strings = prompt.strings;
+    anydata[] insertions = prompt.insertions;
+    string promptStr = "";
+    byte[][] images = [];
+
+    if strings.length() > 0 {
+        promptStr += strings[0];
+    }
+
+    foreach int i in 0 ..< insertions.length() {
+        anydata insertion = insertions[i];
+        string str = strings[i + 1];
+
+        if insertion is ai:Document|ai:Chunk {
+            if insertion is ai:TextDocument|ai:TextChunk {
+                promptStr += insertion.content + " ";
+            } else if insertion is ai:ImageDocument {
+                images.push(<byte[]>insertion.content);
+                promptStr += "[img]";
+            } else {
+                return error ai:Error("Only Text and Image Documents are currently supported.");
+            }
+        } else if insertion is (ai:Document|ai:Chunk)[] {
+            foreach ai:Document|ai:Chunk doc in insertion {
+                if doc is ai:TextDocument|ai:TextChunk {
+                    promptStr += doc.content + " ";
+                } else if doc is ai:ImageDocument {
+                    images.push(<byte[]>doc.content);
+                    promptStr += "[img]";
+                } else {
+                    return error ai:Error("Only Text and Image Documents are currently supported.");
+                }
+            }
+        } else {
+            promptStr += insertion.toString();
+        }
+        promptStr += str;
+    }
+
+    promptStr += addToolDirective();
+    return {text: promptStr.trim(), images};
+}
+
+isolated function getChatRequestCount() returns int {
+    lock {
+        return chatRequestCount;
+    }
+}
+
+isolated function getEmbedRequestCount() returns int {
+    lock {
+        return embedRequestCount;
+    }
+}
+
+isolated function getLastKeepAlive() returns json {
+    lock {
+        return lastKeepAlive.cloneReadOnly();
+    }
+}
+
+isolated function getLastOptions() returns json {
+    lock {
+        return lastOptions.cloneReadOnly();
+    }
+}
+
+isolated function getLastFormatRequest() returns map<json> {
+    lock {
+        return lastFormatRequest.cloneReadOnly();
+    }
+}
+
+isolated function getLastMessageContents() returns string[]|error {
+    json[] messages;
+    lock {
+        messages = lastMessages.cloneReadOnly();
+    }
+    return from json message in messages select check message.content.ensureType();
+}
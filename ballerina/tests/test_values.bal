@@ -13,6 +13,7 @@
 // KIND, either express or implied.  See the License for the
 // specific language governing permissions and limitations
 // under the License.
+import ballerina/ai;
 import ballerina/lang.array;
 
 type Blog record {
@@ -25,8 +26,23 @@ type Review record {|
     string comment;
 |};
 
+@ai:JsonSchema {
+    "type": "object",
+    "properties": {
+        "rating": {"type": "integer", "description": "Rating of the blog out of 10"},
+        "comment": {"type": "string"}
+    },
+    "required": ["rating", "comment"]
+}
+type DescribedReview record {|
+    int rating;
+    string comment;
+|};
+
 final readonly & byte[] sampleBinaryData = [0x01, 0x02, 0x03, 0x04, 0x05];
 final readonly & string sampleStringData = array:toBase64(sampleBinaryData);
+// Large enough to be encoded in multiple chunks while the request body is written.
+final readonly & byte[] largeBinaryData = createBinaryData(200000);
 
 const blog1 = {
     // Generated.
@@ -375,3 +391,77 @@ const expectedParameterSchemaForRecUnionNull =
             }
         }
     };
+
+const expectedParameterSchemaForInlineRecord =
+    {
+        "type": "object",
+        "properties": {
+            "name": {"type": "string"},
+            "age": {"type": "integer"}
+        },
+        "required": ["name", "age"]
+    };
+
+const expectedParameterSchemaForTuple =
+    {
+        "type": "object",
+        "properties": {
+            "result": {
+                "type": "array",
+                "prefixItems": [{"type": "string"}, {"type": "integer"}],
+                "minItems": 2,
+                "maxItems": 2
+            }
+        }
+    };
+
+const expectedParameterSchemaForMapArray =
+    {
+        "type": "object",
+        "properties": {
+            "result": {
+                "type": "array",
+                "items": {
+                    "type": "object",
+                    "additionalProperties": {"type": "integer"}
+                }
+            }
+        }
+    };
+
+isolated function createBinaryData(int length) returns readonly & byte[] {
+    byte[] data = [];
+    foreach int i in 0 ..< length {
+        data.push(<byte>(i % 256));
+    }
+    return data.cloneReadOnly();
+}
+
+const expectedParameterSchemaForProductNameUnion =
+    {
+        "type": "object",
+        "properties": {
+            "result": {
+                "anyOf": [
+                    {
+                        "type": "array",
+                        "items": {
+                            "required": [
+                                "name"
+                            ],
+                            "type": "object",
+                            "properties": {
+                                "name": {
+                                    "type": "string"
+                                }
+                            }
+                        }
+                    },
+                    {
+                        "type": "object",
+                        "additionalProperties": {"type": "string"}
+                    }
+                ]
+            }
+        }
+    };
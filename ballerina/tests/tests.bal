@@ -15,6 +15,7 @@
 // under the License.
 
 import ballerina/ai;
+import ballerina/lang.runtime;
 import ballerina/test;
 
 const SERVICE_URL = "http://localhost:8080/llm";
@@ -145,6 +146,15 @@ function testGenerateMethodWithImageDocument() returns ai:Error? {
         "Ollama does not support URL-based images"));
 }
 
+@test:Config
+function testGenerateMethodWithMultipleImageDocuments() returns ai:Error? {
+    ai:ImageDocument largeImg = {content: largeBinaryData};
+    ai:ImageDocument img = {content: sampleBinaryData};
+
+    string description = check ollamaProvider->generate(`Describe the following images.${largeImg} and ${img}.`);
+    test:assertEquals(description, "These are sample image descriptions.");
+}
+
 @test:Config
 function testGenerateMethodWithTextChunk() returns error? {
     ai:TextChunk chunk = {
@@ -189,8 +199,10 @@ type ProductName record {|
 
 @test:Config
 function testGenerateMethodWithInvalidRecordType() returns ai:Error? {
+    // A typedesc passed as a variable is left as it is by the compiler plugin, so the schema is generated at runtime.
+    typedesc<ProductName[]|map<string>> td = ProductNameOrMap;
     ProductName[]|map<string>|error rating = trap ollamaProvider->generate(
-                `Tell me name and the age of the top 10 world class cricketers`);
+                `Tell me name and the age of the top 10 world class cricketers`, td);
     if rating !is error {
         test:assertFail("Expected error for unsupported type");
     }
@@ -200,6 +212,14 @@ function testGenerateMethodWithInvalidRecordType() returns ai:Error? {
         }, but found ${rating.message()}`);
 }
 
+type ProductNameOrMap ProductName[]|map<string>;
+
+@test:Config
+function testGenerateMethodWithRecordArrayMapUnionType() returns error? {
+    ProductName[]|map<string> products = check ollamaProvider->generate(`Name the products in stock`);
+    test:assertEquals(products, [{name: "Laptop"}, {name: "Phone"}]);
+}
+
 type ProductNameArray ProductName[];
 
 @test:Config
@@ -248,6 +268,24 @@ type Cricketers8 record {|
     string name;
 |};
 
+@test:Config
+function testGenerateMethodWithInlineRecordType() returns error? {
+    record {|string name; int age;|} result = check ollamaProvider->generate(`Describe a famous cricketer`);
+    test:assertEquals(result, {name: "Virat Kohli", age: 33});
+}
+
+@test:Config
+function testGenerateMethodWithTupleType() returns error? {
+    [string, int] result = check ollamaProvider->generate(`Pair a cricketer with their age`);
+    test:assertEquals(result, ["Virat Kohli", 33]);
+}
+
+@test:Config
+function testGenerateMethodWithMapArrayType() returns error? {
+    map<int>[] result = check ollamaProvider->generate(`Rate each cricketer`);
+    test:assertEquals(result, [{"Virat Kohli": 9}, {"Kane Williamson": 8}]);
+}
+
 @test:Config
 function testGenerateMethodWithStringUnionNull() returns error? {
     string? result = check ollamaProvider->generate(`Give me a random joke`);
@@ -356,3 +394,625 @@ function testFallbackEmptyContent() returns ai:Error? {
     }
     test:assertEquals(result.message(), "No relevant response from the LLM");
 }
+
+final ModelProvider ollamaStreamingProvider = check new ("llama2", "http://localhost:8081/llm", streamGenerate = true);
+
+@test:Config
+function testChatStreamWithTextResponse() returns error? {
+    stream<ai:ChatAssistantMessage, ai:Error?> response =
+        check ollamaStreamingProvider->chatStream([{role: ai:USER, content: "Hi there"}]);
+    string[] deltas = [];
+    check from ai:ChatAssistantMessage delta in response
+        do {
+            deltas.push(delta.content ?: "");
+        };
+    test:assertEquals(deltas, ["Hello", ", how can ", "I help?"]);
+}
+
+@test:Config
+function testChatStreamWithToolCallResponse() returns error? {
+    stream<ai:ChatAssistantMessage, ai:Error?> response =
+        check ollamaStreamingProvider->chatStream([{role: ai:USER, content: "What is the weather in Colombo?"}]);
+    ai:FunctionCall[] toolCalls = [];
+    check from ai:ChatAssistantMessage delta in response
+        do {
+            toolCalls.push(...(delta.toolCalls ?: []));
+        };
+    test:assertEquals(toolCalls, [{name: "getWeather", arguments: {city: "Colombo"}}]);
+}
+
+@test:Config
+function testStreamGenerateStopsAtCompleteValue() returns error? {
+    Review result = check ollamaStreamingProvider->generate(`Stream a review of this blog`);
+    test:assertEquals(result, {rating: 8, comment: "Great {blog}!"});
+}
+
+@test:Config
+function testJsonValueScanner() {
+    JsonValueScanner scanner = new;
+    test:assertEquals(scanner.feed("Here: {\"a\": \"}\""), ());
+    test:assertEquals(scanner.feed(", \"b\": [1, "), ());
+    test:assertEquals(scanner.feed("2]} and [3]"), "{\"a\": \"}\", \"b\": [1, 2]}");
+    // Scanning continues after a value that was rejected.
+    test:assertEquals(scanner.feed(""), "[3]");
+    test:assertEquals(scanner.feed(""), ());
+}
+
+@test:Config
+function testResponseSchemaIsCachedPerType() returns error? {
+    ResponseSchemaEntry first = check getResponseSchemaEntry(Review);
+    ResponseSchemaEntry second = check getResponseSchemaEntry(Review);
+    test:assertTrue(first === second, "Expected the cached schema entry to be reused");
+    test:assertEquals(check first.encodedTools.fromJsonString(), getGetResultsTool(first.schema));
+    test:assertEquals(check first.encodedSchema.fromJsonString(), first.schema);
+}
+
+@test:Config
+function testBindToolArguments() returns error? {
+    anydata review = check bindToolArguments({rating: 8, comment: "Great blog!"}, Review, true);
+    test:assertEquals(review, {rating: 8, comment: "Great blog!"});
+    test:assertTrue(review is Review);
+    anydata ratings = check bindToolArguments({result: [8, 9]}, int[], false);
+    test:assertEquals(ratings, [8, 9]);
+    test:assertTrue(ratings is int[]);
+
+    anydata|error invalid = bindToolArguments({result: "eight"}, int, false);
+    if invalid !is error {
+        test:assertFail("Expected an error for a value of a different type");
+    }
+    test:assertEquals(invalid.message(), ERROR_MESSAGE);
+}
+
+@test:Config
+function testCompiledResponseSchemaMatchesRuntimeSchema() returns error? {
+    typedesc<json>[] expectedTypes = [Review, ProductNameArray];
+    foreach typedesc<json> expectedType in expectedTypes {
+        CompiledResponseSchema? compiledSchema = expectedType.@CompiledSchema;
+        if compiledSchema is () {
+            test:assertFail("Expected the compiler plugin to add the compiled response schema");
+        }
+        map<json> jsonSchema = check generateJsonSchemaForTypedescAsJson(expectedType);
+        ResponseSchema responseSchema = generateJsonObjectSchema(jsonSchema);
+        test:assertEquals(compiledSchema.schema, responseSchema.schema);
+        test:assertEquals(compiledSchema.isOriginallyJsonObject, responseSchema.isOriginallyJsonObject);
+        test:assertEquals(check compiledSchema.encodedTools.fromJsonString(),
+                getGetResultsTool(responseSchema.schema));
+        test:assertEquals(check compiledSchema.encodedSchema.fromJsonString(), getFormatSchema(responseSchema));
+
+        ResponseSchemaEntry entry = check getResponseSchemaEntry(expectedType);
+        test:assertTrue(entry === compiledSchema, "Expected the compiled response schema to be used");
+    }
+}
+
+@test:Config
+function testPromptBuilderMatchesConcatenation() returns error? {
+    ai:TextDocument doc = {content: "Title: Sample  Content: \u{1F600} unicode text"};
+    ai:TextChunk chunk = {content: "chunk content"};
+    ai:ImageDocument img = {content: sampleBinaryData};
+    ai:TextDocument[] docs = [doc, doc];
+    ai:TextChunk[] chunks = [chunk, chunk, chunk];
+    map<int> scores = {a: 1, b: 2};
+
+    ai:Prompt[] textPrompts = [
+        `  Plain prompt with no insertions.  `,
+        `Rate ${doc} out of ${10} with ${scores} and ${chunk}.`,
+        `${docs}${chunks} Thank you!${()}`,
+        `Values ${1.5} ${true} ${"str"} ${[1, 2]}`
+    ];
+    foreach ai:Prompt prompt in textPrompts {
+        test:assertEquals(check getChatMessageStringContent(prompt),
+                check getChatMessageStringContentByConcatenation(prompt));
+        test:assertEquals(check generateChatCreationContent(prompt),
+                check generateChatCreationContentByConcatenation(prompt));
+    }
+
+    (ai:Document|ai:Chunk)[] mixed = [doc, img, chunk];
+    ai:Prompt imagePrompt = `Describe ${img} and ${mixed} given ${chunks}.`;
+    test:assertEquals(check generateChatCreationContent(imagePrompt),
+            check generateChatCreationContentByConcatenation(imagePrompt));
+
+    ai:Prompt imageInTextPrompt = `Describe ${img}.`;
+    string|ai:Error content = getChatMessageStringContent(imageInTextPrompt);
+    if content is string {
+        test:assertFail("Expected error for image documents in chat messages");
+    }
+    test:assertEquals(content.message(), "Only Text Documents are currently supported.");
+}
+
+@test:Config
+function testImageEncodingCache() returns ai:Error? {
+    ModelProvider cachingProvider = check new ("llama2", SERVICE_URL, {seed: 11}, imageCache = {});
+    ai:ImageDocument img = {content: sampleBinaryData};
+    ai:ImageDocument largeImg = {content: largeBinaryData};
+
+    string description = check cachingProvider->generate(`Describe the following image.${img}.`);
+    test:assertEquals(description, "This is a sample image description.");
+    description = check cachingProvider->generate(`Describe the following images.${largeImg} and ${img}.`);
+    test:assertEquals(description, "These are sample image descriptions.");
+
+    ImageCacheStats? stats = cachingProvider.getImageCacheStats();
+    test:assertEquals(stats, {
+        hits: 1,
+        misses: 2,
+        entries: 2,
+        sizeInBytes: sampleStringData.length() + largeBinaryData.toBase64().length()
+    });
+    test:assertEquals(ollamaProvider.getImageCacheStats(), ());
+
+    // The cache is kept within its maximum size, which only fits the encoding of the large image.
+    int maxSizeInBytes = largeBinaryData.toBase64().length();
+    ModelProvider boundedProvider = check new ("llama2", SERVICE_URL, {seed: 11},
+        imageCache = {maxSizeInBytes, maxEntrySizeInBytes: maxSizeInBytes});
+    description = check boundedProvider->generate(`Describe the following image.${img}.`);
+    test:assertEquals(description, "This is a sample image description.");
+    description = check boundedProvider->generate(`Describe the following images.${largeImg} and ${img}.`);
+    test:assertEquals(description, "These are sample image descriptions.");
+    test:assertEquals(boundedProvider.getImageCacheStats(), {
+        hits: 0,
+        misses: 3,
+        entries: 1,
+        sizeInBytes: sampleStringData.length()
+    });
+}
+
+@test:Config
+function testGenerateBatch() returns error? {
+    ai:ImageDocument urlImage = {content: "https://example.com/sample-image.jpg"};
+    ai:Prompt[] prompts = [
+        `Rate this blog out of 10.
+        Title: ${blog1.title}
+        Content: ${blog1.content}`,
+        `How many continents are there`,
+        `Describe this image.${urlImage}.`,
+        `How many continents are there`
+    ];
+
+    BatchResult[] results = check ollamaProvider->generateBatch(prompts, int, concurrency = 2);
+    test:assertEquals(results.length(), 4);
+    test:assertEquals(results.'map(res => res.index), [0, 1, 2, 3]);
+    test:assertEquals(results[0].result, 4);
+    test:assertEquals(results[1].result, 7);
+    anydata|ai:Error urlImageResult = results[2].result;
+    if urlImageResult !is ai:Error {
+        test:assertFail("Expected error for URL-based image");
+    }
+    test:assertTrue(urlImageResult.message().includes("Ollama does not support URL-based images"));
+    test:assertEquals(results[3].result, 7);
+}
+
+final ModelProvider ollamaCoalescingProvider = check new ("llama2", "http://localhost:8082/llm",
+    coalesceIdenticalRequests = true);
+
+@test:Config
+function testIdenticalRequestsAreCoalesced() returns error? {
+    int initialRequestCount = getChatRequestCount();
+    future<ai:ChatAssistantMessage|ai:Error>[] requests = [];
+    foreach int _ in 0 ..< 4 {
+        requests.push(start ollamaCoalescingProvider->chat([{role: ai:USER, content: "Hello"}]));
+    }
+    future<ai:ChatAssistantMessage|ai:Error> otherRequest =
+        start ollamaCoalescingProvider->chat([{role: ai:USER, content: "Hi"}]);
+    foreach future<ai:ChatAssistantMessage|ai:Error> request in requests {
+        ai:ChatAssistantMessage message = check wait request;
+        test:assertEquals(message.content, "Reply to: Hello");
+    }
+    ai:ChatAssistantMessage otherMessage = check wait otherRequest;
+    test:assertEquals(otherMessage.content, "Reply to: Hi");
+    test:assertEquals(getChatRequestCount() - initialRequestCount, 2);
+
+    // Requests are only coalesced while in flight, so a later identical request is sent again.
+    ai:ChatAssistantMessage message = check ollamaCoalescingProvider->chat([{role: ai:USER, content: "Hello"}]);
+    test:assertEquals(message.content, "Reply to: Hello");
+    test:assertEquals(getChatRequestCount() - initialRequestCount, 3);
+}
+
+@test:Config
+function testCoalescedRequestsShareFailure() returns error? {
+    ModelProvider unreachableProvider = check new ("llama2", "http://localhost:8099/llm",
+        coalesceIdenticalRequests = true);
+    future<ai:ChatAssistantMessage|ai:Error>[] requests = [];
+    foreach int _ in 0 ..< 3 {
+        requests.push(start unreachableProvider->chat([{role: ai:USER, content: "Hello"}]));
+    }
+    // The callers waiting for a failed request are released with an error instead of waiting indefinitely.
+    foreach future<ai:ChatAssistantMessage|ai:Error> request in requests {
+        ai:ChatAssistantMessage|ai:Error message = wait request;
+        test:assertTrue(message is ai:Error);
+    }
+}
+
+@test:Config
+function testResponseCache() returns error? {
+    ModelProvider cachingProvider = check new ("llama2", "http://localhost:8082/llm", responseCache = {});
+    int initialRequestCount = getChatRequestCount();
+    foreach int _ in 0 ..< 2 {
+        ai:ChatAssistantMessage message = check cachingProvider->chat([{role: ai:USER, content: "Cache this"}]);
+        test:assertEquals(message.content, "Reply to: Cache this");
+    }
+    test:assertEquals(getChatRequestCount() - initialRequestCount, 1);
+    test:assertEquals(cachingProvider.getResponseCacheStats(), {hits: 1, fileHits: 0, misses: 1, entries: 1});
+    test:assertEquals(ollamaProvider.getResponseCacheStats(), ());
+
+    // A cached response reports that no tokens were evaluated for it.
+    handle responseCache = <handle>check createResponseCache({});
+    byte[] request = "request".toBytes();
+    addResponseToCache(responseCache, request,
+            {model: "llama2", message: {role: "assistant", content: "Cached"}, prompt_eval_count: 10, eval_count: 5});
+    OllamaResponse? cachedResponse = getResponseFromCache(responseCache, request);
+    test:assertEquals(cachedResponse?.prompt_eval_count, 0);
+    test:assertEquals(cachedResponse?.eval_count, 0);
+    test:assertEquals(cachedResponse?.cached, true);
+}
+
+@test:Config
+function testResponseCacheIsPersisted() returns error? {
+    ResponseCacheConfig responseCache = {filePath: "target/response-cache/responses.bin"};
+    ModelProvider firstProvider = check new ("llama2", "http://localhost:8082/llm", responseCache = responseCache);
+    ai:ChatAssistantMessage message = check firstProvider->chat([{role: ai:USER, content: "Persist this"}]);
+    test:assertEquals(message.content, "Reply to: Persist this");
+
+    // A new provider reads the response that was persisted by the first one.
+    int initialRequestCount = getChatRequestCount();
+    ModelProvider secondProvider = check new ("llama2", "http://localhost:8082/llm", responseCache = responseCache);
+    message = check secondProvider->chat([{role: ai:USER, content: "Persist this"}]);
+    test:assertEquals(message.content, "Reply to: Persist this");
+    test:assertEquals(getChatRequestCount() - initialRequestCount, 0);
+    test:assertEquals(secondProvider.getResponseCacheStats(), {hits: 0, fileHits: 1, misses: 0, entries: 1});
+}
+
+@test:Config
+function testInvalidResponseCacheConfig() {
+    ModelProvider|ai:Error provider = new ("llama2", "http://localhost:8082/llm", responseCache = {capacity: 0});
+    if provider !is ai:Error {
+        test:assertFail("Expected an error for a non-positive cache capacity");
+    }
+    test:assertEquals(provider.message(), "Response cache capacity, time to live and file size must be positive");
+}
+
+final EmbeddingProvider ollamaEmbeddingProvider = check new ("nomic-embed-text", SERVICE_URL,
+    batchSize = 2, concurrency = 2, truncate = false, keepAlive = "10m");
+
+@test:Config
+function testEmbed() returns ai:Error? {
+    ai:Embedding embedding = check ollamaEmbeddingProvider->embed(<ai:TextChunk>{content: "Hello"});
+    test:assertEquals(embedding, [5.0, 1.0]);
+}
+
+@test:Config
+function testBatchEmbed() returns ai:Error? {
+    string[] texts = ["a", "bb", "ccc", "dddd", "eeeee"];
+    ai:TextChunk[] chunks = from string text in texts select {content: text};
+    int initialRequestCount = getEmbedRequestCount();
+    ai:Embedding[] embeddings = check ollamaEmbeddingProvider->batchEmbed(chunks);
+    test:assertEquals(embeddings, [[1.0, 1.0], [2.0, 1.0], [3.0, 1.0], [4.0, 1.0], [5.0, 1.0]]);
+    test:assertEquals(getEmbedRequestCount() - initialRequestCount, 3);
+
+    test:assertEquals(check ollamaEmbeddingProvider->batchEmbed([]), []);
+    test:assertEquals(getEmbedRequestCount() - initialRequestCount, 3);
+}
+
+@test:Config
+function testInvalidEmbeddingConfig() {
+    EmbeddingProvider|ai:Error provider = new ("nomic-embed-text", SERVICE_URL, batchSize = 0);
+    if provider !is ai:Error {
+        test:assertFail("Expected an error for a non-positive batch size");
+    }
+    test:assertEquals(provider.message(), "Embedding batch size and concurrency must be positive");
+}
+
+@test:Config
+function testWarmUpAndKeepAlive() returns error? {
+    int initialRequestCount = getChatRequestCount();
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm", keepAlive = "10m", warmUp = true);
+    test:assertEquals(getChatRequestCount() - initialRequestCount, 1);
+    test:assertEquals(getLastKeepAlive(), "10m");
+    test:assertEquals(getLastOptions().num_ctx, 2048);
+
+    WarmUpResult result = check provider->warmUp();
+    test:assertEquals(result.loadDuration, 1.5d);
+    test:assertTrue(result.elapsedTime >= 0d);
+
+    ModelProvider indefiniteProvider = check new ("llama2", "http://localhost:8082/llm", keepAlive = -1);
+    ai:ChatAssistantMessage message = check indefiniteProvider->chat([{role: ai:USER, content: "Keep alive"}]);
+    test:assertEquals(message.content, "Reply to: Keep alive");
+    test:assertEquals(getLastKeepAlive(), -1);
+
+    // With context sizing, the model is loaded with the smallest context size, which is chosen first.
+    _ = check new ModelProvider("llama2", "http://localhost:8082/llm", temperature = 0.5, warmUp = true,
+            contextSizing = {contextSizes: [8192, 4096]});
+    test:assertEquals(getLastOptions().num_ctx, 4096);
+    test:assertEquals(getLastOptions().temperature, 0.5);
+}
+
+@test:Config
+function testRequestsAreBalancedOverEndpoints() returns error? {
+    // Both reachable URLs are served by the same test service.
+    ModelProvider provider = check new ("llama2",
+        ["http://localhost:8099/llm", "http://localhost:8082/llm", "http://127.0.0.1:8082/llm"]);
+    future<ai:ChatAssistantMessage|ai:Error> firstRequest =
+        start provider->chat([{role: ai:USER, content: "First endpoint request"}]);
+    future<ai:ChatAssistantMessage|ai:Error> secondRequest =
+        start provider->chat([{role: ai:USER, content: "Second endpoint request"}]);
+    ai:ChatAssistantMessage firstMessage = check wait firstRequest;
+    ai:ChatAssistantMessage secondMessage = check wait secondRequest;
+    test:assertEquals(firstMessage.content, "Reply to: First endpoint request");
+    test:assertEquals(secondMessage.content, "Reply to: Second endpoint request");
+
+    EndpointStats[] stats = provider.getEndpointStats();
+    test:assertEquals(stats.'map(endpoint => endpoint.healthy), [false, true, true]);
+    test:assertEquals(stats.'map(endpoint => endpoint.inFlightRequests), [0, 0, 0]);
+    test:assertTrue(stats[1].latency > 0d && stats[2].latency > 0d, "Expected both endpoints to be used");
+}
+
+@test:Config
+function testEmptyServiceUrls() {
+    ModelProvider|ai:Error provider = new ("llama2", []);
+    if provider !is ai:Error {
+        test:assertFail("Expected an error for an empty list of service URLs");
+    }
+    test:assertEquals(provider.message(), "At least one service URL must be provided");
+}
+
+@test:Config
+function testAdmissionControl() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm",
+        admissionControl = {initialLimit: 1, minLimit: 1, maxLimit: 1, maxQueueSize: 1, maxQueueWait: 0.2});
+    future<ai:ChatAssistantMessage|ai:Error>[] requests = [];
+    foreach int i in 0 ..< 3 {
+        requests.push(start provider->chat([{role: ai:USER, content: string `Admission request ${i}`}]));
+    }
+    int completed = 0;
+    string[] rejections = [];
+    foreach future<ai:ChatAssistantMessage|ai:Error> request in requests {
+        ai:ChatAssistantMessage|error result = wait request;
+        if result is error {
+            rejections.push(result.message());
+        } else {
+            completed += 1;
+        }
+    }
+    test:assertEquals(completed, 1);
+    test:assertEquals(rejections.sort(), [
+        "Request rejected as it was not admitted within the maximum queue wait",
+        "Request rejected as the admission queue is full"
+    ]);
+    test:assertEquals(provider.getAdmissionStats(), {
+        concurrencyLimit: 1,
+        inFlightRequests: 0,
+        queuedInteractiveRequests: 0,
+        queuedBatchRequests: 0,
+        rejectedRequests: 1,
+        timedOutRequests: 1
+    });
+    test:assertEquals(ollamaProvider.getAdmissionStats(), ());
+}
+
+@test:Config
+function testAdmissionPriorityAndLimit() returns error? {
+    handle controller = createAdmissionController(1, 1, 1, 10, 5000000000, 2.0);
+    check awaitAdmission(controller, INTERACTIVE_PRIORITY);
+    future<ai:Error?> batchRequest = start awaitAdmission(controller, BATCH_PRIORITY);
+    runtime:sleep(0.1);
+    future<ai:Error?> interactiveRequest = start awaitAdmission(controller, INTERACTIVE_PRIORITY);
+    runtime:sleep(0.1);
+    // The interactive request is admitted first, although the batch request has waited longer.
+    releaseRequest(controller, 1000000, 0, false);
+    check wait interactiveRequest;
+    test:assertEquals(getAdmissionStatsFromController(controller).queuedBatchRequests, 1);
+    releaseRequest(controller, 1000000, 0, false);
+    check wait batchRequest;
+    releaseRequest(controller, 1000000, 0, false);
+    test:assertEquals(getAdmissionStatsFromController(controller).inFlightRequests, 0);
+
+    handle adaptiveController = createAdmissionController(4, 1, 4, 10, 5000000000, 2.0);
+    check awaitAdmission(adaptiveController, INTERACTIVE_PRIORITY);
+    releaseRequest(adaptiveController, 1000, 10, false);
+    test:assertEquals(getAdmissionStatsFromController(adaptiveController).concurrencyLimit, 4);
+    // The limit decreases when the latency per token exceeds the tolerance over the baseline.
+    check awaitAdmission(adaptiveController, INTERACTIVE_PRIORITY);
+    releaseRequest(adaptiveController, 100000, 10, false);
+    test:assertEquals(getAdmissionStatsFromController(adaptiveController).concurrencyLimit, 3);
+    // It also decreases when the server is overloaded.
+    foreach int _ in 0 ..< 2 {
+        check awaitAdmission(adaptiveController, INTERACTIVE_PRIORITY);
+        releaseRequest(adaptiveController, 0, 0, true);
+    }
+    test:assertEquals(getAdmissionStatsFromController(adaptiveController).concurrencyLimit, 2);
+}
+
+@test:Config
+function testStreamedRequestHoldsAdmission() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8081/llm", admissionControl = {});
+    stream<ai:ChatAssistantMessage, ai:Error?> response =
+        check provider->chatStream([{role: ai:USER, content: "Hi there"}]);
+    test:assertEquals(provider.getAdmissionStats()?.inFlightRequests, 1);
+    check from ai:ChatAssistantMessage _ in response
+        do {
+        };
+    // The admission is released once the stream is exhausted.
+    test:assertEquals(provider.getAdmissionStats()?.inFlightRequests, 0);
+}
+
+@test:Config
+function testServerTimingMetrics() returns error? {
+    test:assertEquals(toSeconds(1500000000), 1.5d);
+    test:assertEquals(getTokensPerSecond(20, 100000000), 200.0);
+    test:assertEquals(getTokensPerSecond(10, ()), ());
+    test:assertEquals(getTokensPerSecond(10, 0), ());
+
+    OllamaResponse response = {
+        model: "llama2",
+        message: {role: "assistant", content: "Timed"},
+        prompt_eval_count: 20,
+        eval_count: 50,
+        load_duration: 1500000000,
+        prompt_eval_duration: 100000000,
+        eval_duration: 500000000
+    };
+    test:assertEquals(getResponseMetrics(response, 0.4), {
+        timeToFirstToken: 2.0,
+        loadDuration: 1.5,
+        promptTokensPerSecond: 200.0,
+        generationTokensPerSecond: 100.0
+    });
+    // The time to the first token measured while streaming is recorded as is.
+    test:assertEquals(getResponseMetrics(response, timeToFirstToken = 0.25)?.timeToFirstToken, 0.25);
+    test:assertEquals(getResponseMetrics({model: "llama2", message: {role: "assistant", content: ""}}), {});
+
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm");
+    ai:ChatAssistantMessage message = check provider->chat([{role: ai:USER, content: "Report timings"}]);
+    test:assertEquals(message.content, "Reply to: Report timings");
+}
+
+@test:Config
+function testChatSession() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm");
+    ChatSession session = check provider.createSession();
+    ai:ChatAssistantMessage message = check session->chat([
+        {role: ai:SYSTEM, content: "You are a helpful assistant"},
+        {role: ai:USER, content: "First turn"}
+    ]);
+    test:assertEquals(message.content, "Reply to: First turn");
+    message = check session->chat({role: ai:USER, content: "Second turn"});
+    test:assertEquals(message.content, "Reply to: Second turn");
+    test:assertEquals(session.getHistoryLength(), 5);
+
+    session.clear();
+    test:assertEquals(session.getHistoryLength(), 0);
+}
+
+@test:Config
+function testChatSessionTrimsHistory() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm", numCtx = 64);
+    ChatSession session = check provider.createSession();
+    ChatSession untrimmedSession = check provider.createSession(trimHistory = false);
+    string[] conversation = [];
+    string[] sentMessages = [];
+    foreach int i in 0 ..< 4 {
+        conversation.push(string `Turn ${i}`);
+        ai:ChatAssistantMessage message = check session->chat({role: ai:USER, content: string `Turn ${i}`});
+        test:assertEquals(message.content, string `Reply to: Turn ${i}`);
+        sentMessages = check getLastMessageContents();
+        conversation.push(string `Reply to: Turn ${i}`);
+        _ = check untrimmedSession->chat({role: ai:USER, content: string `Turn ${i}`});
+    }
+    test:assertEquals(untrimmedSession.getHistoryLength(), 8);
+    test:assertEquals(check getLastMessageContents(), conversation.slice(0, 7));
+
+    // The oldest messages are dropped, and the messages that are kept are the most recent ones, in order.
+    int sentLength = sentMessages.length();
+    test:assertTrue(sentLength > 1 && sentLength < 7);
+    test:assertEquals(sentMessages, conversation.slice(7 - sentLength, 7));
+    test:assertFalse(sentMessages.indexOf("Turn 0") is int);
+    int historyLength = session.getHistoryLength();
+    test:assertEquals(historyLength, sentLength + 1);
+
+    // With context sizing, the history is kept within the largest context size less the response tokens.
+    ModelProvider sizingProvider = check new ("llama2", "http://localhost:8082/llm",
+            contextSizing = {contextSizes: [32, 96], responseTokens: 32});
+    ChatSession sizedSession = check sizingProvider.createSession();
+    foreach int i in 0 ..< 4 {
+        _ = check sizedSession->chat({role: ai:USER, content: string `Turn ${i}`});
+    }
+    test:assertEquals(sizedSession.getHistoryLength(), historyLength);
+
+    ChatSession|ai:Error invalidSession = provider.createSession(contextUsageLimit = 0.0);
+    test:assertTrue(invalidSession is ai:Error);
+    invalidSession = provider.createSession(contextUsageLimit = 1.5);
+    test:assertTrue(invalidSession is ai:Error);
+}
+
+@test:Config
+function testSpanSampling() returns error? {
+    SpanSampler sampler = check new ({level: SAMPLED_SPANS, samplingRate: 0.25});
+    SpanCapture[] captures = from int _ in 0 ..< 8 select sampler.sample();
+    test:assertEquals(captures, [NO_SPAN, NO_SPAN, NO_SPAN, METADATA_SPAN, NO_SPAN, NO_SPAN, NO_SPAN, METADATA_SPAN]);
+
+    SpanSampler fullSampler = check new ({level: FULL_CAPTURE});
+    test:assertEquals(fullSampler.sample(), PAYLOAD_SPAN);
+    SpanSampler metricsSampler = check new ({level: METRICS_ONLY});
+    test:assertEquals(metricsSampler.sample(), NO_SPAN);
+
+    SpanSampler|ai:Error invalidSampler = new ({level: SAMPLED_SPANS, samplingRate: 1.5});
+    test:assertTrue(invalidSampler is ai:Error);
+}
+
+@test:Config
+function testObservabilityOff() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm", observability = {level: OFF});
+    ai:ChatAssistantMessage message = check provider->chat([{role: ai:USER, content: "Not observed"}]);
+    test:assertEquals(message.content, "Reply to: Not observed");
+
+    // No request is selected for a span at the `OFF` level, so neither a span nor a payload is captured.
+    SpanSampler sampler = check new ({level: OFF, samplingRate: 1.0});
+    SpanCapture[] captures = from int _ in 0 ..< 4 select sampler.sample();
+    test:assertEquals(captures, [NO_SPAN, NO_SPAN, NO_SPAN, NO_SPAN]);
+    ChatObservation chatObservation = new ("llama2", NO_SPAN);
+    test:assertFalse(chatObservation.isRecording());
+    test:assertFalse(chatObservation.isCapturingMessages());
+    GenerateObservation generateObservation = new ("llama2", NO_SPAN);
+    test:assertFalse(generateObservation.isRecording());
+
+    // No metric is registered at the `OFF` level.
+    test:assertFalse((new ModelMetrics("llama2", OFF)).isRecording());
+    test:assertTrue((new ModelMetrics("llama2", METRICS_ONLY)).isRecording());
+}
+
+@test:Config
+function testContextSizing() returns error? {
+    readonly & ContextSizing contextSizing =
+        <readonly & ContextSizing>check createContextSizing({contextSizes: [8192, 2048, 4096]});
+    test:assertEquals(contextSizing.contextSizes, [2048, 4096, 8192]);
+    test:assertEquals(chooseContextSize(contextSizing, 1000), {numCtx: 2048, estimatedPromptTokens: 1000});
+    test:assertEquals(chooseContextSize(contextSizing, 1600), {numCtx: 4096, estimatedPromptTokens: 1600});
+    test:assertEquals(chooseContextSize(contextSizing, 9000), {numCtx: 8192, estimatedPromptTokens: 9000});
+
+    // The fixed `num_ctx` is left out of the options and written for each request instead.
+    readonly & RequestTemplate template = createRequestTemplate("llama2", {num_ctx: 2048, temperature: 0.7}, (),
+            contextSizing);
+    ContextSize? contextSize = selectContextSize(template, "a".repeat(8000));
+    test:assertEquals(contextSize, {numCtx: 4096, estimatedPromptTokens: 2001});
+    test:assertEquals(getEncodedOptions(template.options, "end", contextSize?.numCtx),
+            string `{"temperature":0.7,"num_ctx":4096,"stop":["end"]}`);
+    test:assertEquals(selectContextSize(createRequestTemplate("llama2", {num_ctx: 2048}), "text"), ());
+
+    test:assertEquals(getPromptTokenLimit(contextSizing, 2048), 8192 - 512);
+    test:assertEquals(getPromptTokenLimit((), 2048), 2048);
+
+    ai:Error|(readonly & ContextSizing)? invalidSizing = createContextSizing({contextSizes: [0, 2048]});
+    test:assertTrue(invalidSizing is ai:Error);
+
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm",
+            contextSizing = {tokenEstimator: text => text.length() / 3});
+    ai:ChatAssistantMessage message = check provider->chat([{role: ai:USER, content: "Size the context"}]);
+    test:assertEquals(message.content, "Reply to: Size the context");
+}
+
+@test:Config
+function testFormatSchemaStrategy() returns error? {
+    ModelProvider provider = check new ("llama2", "http://localhost:8082/llm", structuredOutput = FORMAT_SCHEMA);
+    Review review = check provider->generate(`Review this blog`);
+    test:assertEquals(review, {rating: 8, comment: "Great blog!"});
+    map<json> request = getLastFormatRequest();
+    // The request carries neither the tool nor the instructions to call it.
+    test:assertFalse(request.hasKey("tools"));
+    json[] messages = check request.messages.ensureType();
+    test:assertEquals(messages.length(), 1);
+    string prompt = check messages[0].content.ensureType();
+    test:assertFalse(prompt.includes(GET_RESULTS_TOOL));
+    test:assertEquals(request.format, (check getResponseSchemaEntry(Review)).schema);
+
+    int[] ratings = check provider->generate(`Rate these blogs`);
+    test:assertEquals(ratings, [8, 9]);
+    test:assertEquals(check getLastFormatRequest().format.required, [RESULT]);
+
+    // The schema written for a type is used instead of the one the compiler plugin generates.
+    DescribedReview describedReview = check provider->generate(`Review this blog`);
+    test:assertEquals(describedReview, {rating: 8, comment: "Great blog!"});
+    test:assertEquals(check getLastFormatRequest().format.properties.rating.description,
+            "Rating of the blog out of 10");
+
+    test:assertEquals(check parseResponseContent("[8, 9]", int[], false, FORMAT_SCHEMA), [8, 9]);
+    anydata|error invalid = parseResponseContent("{\"result\": \"eight\"}", int, false, FORMAT_SCHEMA);
+    test:assertTrue(invalid is error);
+}
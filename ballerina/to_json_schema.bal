@@ -31,6 +31,21 @@ type JsonArraySchema record {|
 
 public annotation map<json> JsonSchema on type;
 
+# The `getResults` tool of the expected type of a `generate` call, built at compile time.
+public type CompiledResponseSchema record {|
+    # The schema of the tool parameters, in which a type that is not an object is wrapped in a `result` property
+    map<json> schema;
+    # Whether the expected type is an object, whose value is not wrapped
+    boolean isOriginallyJsonObject;
+    # The serialized tools array of the request, which contains the `getResults` tool
+    string encodedTools;
+    # The serialized schema, sent as the `format` of the request with the `FORMAT_SCHEMA` strategy
+    string encodedSchema;
+|};
+
+# Added by the compiler plugin to the expected types of `generate` calls, so that the tool is not built per call.
+public annotation CompiledResponseSchema CompiledSchema on type;
+
 isolated function generateJsonSchemaForTypedescAsJson(typedesc<json> expectedResponseTypedesc) returns map<json>|ai:Error =>
     let map<json>? ann = expectedResponseTypedesc.@ai:JsonSchema in ann
                 ?: check generateJsonSchemaForTypedescNative(expectedResponseTypedesc)
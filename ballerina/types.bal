@@ -14,6 +14,7 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/ai;
 import ballerina/data.jsondata;
 import ballerina/http;
 
@@ -78,6 +79,312 @@ public type ConnectionConfig record {|
     boolean validation = true;
 |};
 
+# Advanced configurations that control how the provider interacts with the Ollama server.
+@display {label: "Advanced Configuration"}
+public type AdvancedConfig record {|
+    # Whether `generate` streams the response and stops reading as soon as a complete
+    # JSON value that matches the expected type has been received.
+    # Closing the stream early makes Ollama stop generating tokens that would be discarded.
+    @display {label: "Stream Generate"}
+    boolean streamGenerate = false;
+
+    # Configuration for caching the base64 encodings of images, so that images sent
+    # repeatedly are not encoded again. Caching is disabled if not provided.
+    @display {label: "Image Cache Configuration"}
+    ImageCacheConfig imageCache?;
+
+    # Whether a request that is identical to one already in flight waits for the response of that
+    # request instead of being sent again. Applies to requests whose responses are not streamed.
+    @display {label: "Coalesce Identical Requests"}
+    boolean coalesceIdenticalRequests = false;
+
+    # Configuration for caching the responses of the model, so that identical requests are answered
+    # without calling the model. Only enable this for deterministic model parameters, such as a fixed
+    # `seed` with a `temperature` of 0. Caching is disabled if not provided.
+    @display {label: "Response Cache Configuration"}
+    ResponseCacheConfig responseCache?;
+
+    # Duration for which the model stays loaded after a request, either as a duration string such as `10m`
+    # or as a number of seconds. A negative value keeps the model loaded indefinitely.
+    # The default of the server applies if not provided.
+    @display {label: "Keep Alive"}
+    string|int keepAlive?;
+
+    # Whether the model is loaded into memory when the provider is initialized, so that the first
+    # request does not have to wait for it. The model can also be loaded later with `warmUp`.
+    @display {label: "Warm Up"}
+    boolean warmUp = false;
+
+    # Interval (in seconds) between the health probes of each endpoint, when several service URLs
+    # are provided. An endpoint that cannot be reached is not used until a probe succeeds.
+    @display {label: "Health Probe Interval"}
+    decimal healthProbeInterval = 10;
+
+    # Configuration for adapting the number of concurrent requests sent to the server, and queueing
+    # the requests beyond it. Requests are sent as soon as they are made if not provided.
+    @display {label: "Admission Control Configuration"}
+    AdmissionConfig admissionControl?;
+
+    # Configuration for the metrics and spans recorded for the requests.
+    # Metrics are recorded, and every request is traced along with its messages, if not provided.
+    @display {label: "Observability Configuration"}
+    ObservabilityConfig observability = {};
+
+    # Configuration for choosing the context window size of each request from its estimated number of tokens.
+    # The `numCtx` model parameter is used for every request if not provided.
+    @display {label: "Context Sizing Configuration"}
+    ContextSizingConfig contextSizing?;
+
+    # How `generate` makes the model respond with a value of the expected type
+    @display {label: "Structured Output Strategy"}
+    StructuredOutputStrategy structuredOutput = TOOL_CALL;
+|};
+
+# Strategy by which `generate` makes the model respond with a value of the expected type.
+public enum StructuredOutputStrategy {
+    # The schema of the expected type is sent as the parameters of a `getResults` tool, along with
+    # instructions to call it. The text of a model that responds without calling the tool is parsed instead
+    TOOL_CALL,
+    # The schema of the expected type is sent as the `format` of the request, which constrains the
+    # response of the model to the schema. Requires a version of Ollama that supports structured outputs
+    FORMAT_SCHEMA
+}
+
+# Configurations for the cache of base64 encoded images.
+@display {label: "Image Cache Configuration"}
+public type ImageCacheConfig record {|
+    # Maximum total size (in bytes) of the cached encodings
+    @display {label: "Maximum Size"}
+    int maxSizeInBytes = 67108864;
+
+    # Maximum size (in bytes) of a single cached encoding. Larger images are encoded on every request
+    @display {label: "Maximum Entry Size"}
+    int maxEntrySizeInBytes = 16777216;
+|};
+
+# Configurations for generating embeddings.
+@display {label: "Embedding Configuration"}
+public type EmbeddingConfig record {|
+    # Maximum number of chunks sent to the server in a single request
+    @display {label: "Batch Size"}
+    int batchSize = 32;
+
+    # Maximum number of requests sent to the server concurrently.
+    # Set this to match the `OLLAMA_NUM_PARALLEL` setting of the server.
+    @display {label: "Concurrency"}
+    int concurrency = 1;
+
+    # Whether inputs that exceed the context length of the model are truncated.
+    # An error is returned for such inputs if set to `false`
+    @display {label: "Truncate"}
+    boolean truncate = true;
+
+    # Duration for which the model stays loaded after a request, either as a duration string such as `10m`
+    # or as a number of seconds. A negative value keeps the model loaded indefinitely.
+    # The default of the server applies if not provided
+    @display {label: "Keep Alive"}
+    string|int keepAlive?;
+|};
+
+# Configurations for the cache of model responses.
+@display {label: "Response Cache Configuration"}
+public type ResponseCacheConfig record {|
+    # Maximum number of responses held in memory
+    @display {label: "Capacity"}
+    int capacity = 1024;
+
+    # Time (in seconds) for which a cached response is used
+    @display {label: "Time to Live"}
+    decimal ttl = 3600;
+
+    # Path of the file to which responses are appended, so that they survive restarts.
+    # Responses are only held in memory if not provided. The file must not be shared between processes
+    @display {label: "File Path"}
+    string filePath?;
+
+    # Maximum size (in bytes) of the file. The oldest responses are dropped when the file is full
+    @display {label: "Maximum File Size"}
+    int maxFileSizeInBytes = 67108864;
+|};
+
+# Configurations for the admission control of the requests sent to the server. The concurrency limit
+# increases additively while it is reached, and decreases multiplicatively when the server signals
+# overload or the latency per token exceeds the tolerated multiple of the lowest observed latency.
+# Requests made by `generateBatch` are admitted after the other requests.
+@display {label: "Admission Control Configuration"}
+public type AdmissionConfig record {|
+    # Concurrency limit when the provider is initialized
+    @display {label: "Initial Limit"}
+    int initialLimit = 4;
+
+    # Lowest value of the concurrency limit
+    @display {label: "Minimum Limit"}
+    int minLimit = 1;
+
+    # Highest value of the concurrency limit
+    @display {label: "Maximum Limit"}
+    int maxLimit = 32;
+
+    # Maximum number of requests waiting to be admitted. Requests beyond it are rejected immediately
+    @display {label: "Maximum Queue Size"}
+    int maxQueueSize = 64;
+
+    # Maximum time (in seconds) a request waits to be admitted before it is rejected
+    @display {label: "Maximum Queue Wait"}
+    decimal maxQueueWait = 10;
+
+    # Multiple of the lowest observed latency per token above which the limit is decreased
+    @display {label: "Latency Tolerance"}
+    float latencyTolerance = 2.0;
+|};
+
+# Configurations for the telemetry recorded for the requests of a provider. The messages of a request
+# are only converted for a span when the span is recorded and tracing is enabled.
+#
+# The attributes specific to Ollama, such as the timings reported by the server (`gen_ai.ollama.*_duration`),
+# the chosen context size (`gen_ai.ollama.num_ctx`) and response cache hits, cannot be set on the chat and
+# generate content spans of the `ai` module. They are recorded on a separate `ollama response` span instead,
+# started under the span that is active when the response is received.
+@display {label: "Observability Configuration"}
+public type ObservabilityConfig record {|
+    # Telemetry recorded for the requests
+    @display {label: "Level"}
+    ObservabilityLevel level = FULL_CAPTURE;
+
+    # Fraction of the requests for which a span is recorded at the `SAMPLED_SPANS` level
+    @display {label: "Sampling Rate"}
+    float samplingRate = 0.1;
+|};
+
+# Configurations for choosing the context window size (`num_ctx`) of each request, instead of using the
+# fixed `numCtx` model parameter. The number of tokens of a request is estimated locally, and the smallest
+# context size that fits the request and the response is chosen. The chosen size and the estimate are
+# recorded as metrics and span attributes, along with the prompt tokens evaluated by the server.
+@display {label: "Context Sizing Configuration"}
+public type ContextSizingConfig record {|
+    # Context window sizes (in tokens) to choose from. The largest size is used for requests that do
+    # not fit any. Each size the server has not loaded the model with makes it reload the model, so
+    # this should be a small set
+    @display {label: "Context Sizes"}
+    int[] contextSizes = [2048, 4096, 8192, 16384, 32768];
+
+    # Number of tokens reserved for the response
+    @display {label: "Response Tokens"}
+    int responseTokens = 512;
+
+    # Estimates the number of tokens of a part of a request. One token per four characters is assumed
+    # if not provided. The tokens of images are not estimated
+    @display {label: "Token Estimator"}
+    TokenEstimator tokenEstimator?;
+|};
+
+# Function that estimates the number of tokens the model splits the given text into.
+public type TokenEstimator isolated function (string text) returns int;
+
+# Telemetry recorded for the requests of a provider.
+public enum ObservabilityLevel {
+    # Neither metrics nor spans are recorded
+    OFF,
+    # Metrics are recorded, but no spans
+    METRICS_ONLY,
+    # Metrics are recorded, along with spans without the messages for a sample of the requests
+    SAMPLED_SPANS,
+    # Metrics are recorded, along with spans with the messages for every request
+    FULL_CAPTURE
+}
+
+# Configurations for generating values for a batch of prompts.
+@display {label: "Batch Configuration"}
+public type BatchConfig record {|
+    # Maximum number of requests sent to the server concurrently.
+    # Set this to match the `OLLAMA_NUM_PARALLEL` setting of the server.
+    @display {label: "Concurrency"}
+    int concurrency = 4;
+|};
+
+# Result of generating a value for a prompt in a batch.
+public type BatchResult record {|
+    # Index of the prompt in the batch
+    int index;
+    # Generated value, or the error that occurred while generating it
+    anydata|ai:Error result;
+|};
+
+# Configurations for a chat session.
+@display {label: "Chat Session Configuration"}
+public type ChatSessionConfig record {|
+    # Whether the oldest messages of the history are dropped when the estimated size of a request exceeds
+    # the context usage limit. System messages and the messages of the current turn are never dropped
+    @display {label: "Trim History"}
+    boolean trimHistory = true;
+
+    # Fraction, greater than 0 and at most 1, of the prompt token limit that the messages of a request may
+    # take up. The prompt token limit is `numCtx`, or the largest of the context sizes less the response
+    # tokens when context sizing is enabled
+    @display {label: "Context Usage Limit"}
+    float contextUsageLimit = 0.75;
+|};
+
+# Statistics of the image encoding cache.
+public type ImageCacheStats record {|
+    # Number of images whose encoding was found in the cache
+    int hits;
+    # Number of images that had to be encoded
+    int misses;
+    # Number of cached encodings
+    int entries;
+    # Total size (in bytes) of the cached encodings
+    int sizeInBytes;
+|};
+
+# Result of loading the model into memory.
+public type WarmUpResult record {|
+    # Time (in seconds) the server reported for loading the model, if reported
+    decimal loadDuration?;
+    # Time (in seconds) taken by the warm-up request
+    decimal elapsedTime;
+|};
+
+# Load and health of an Ollama endpoint of a provider.
+public type EndpointStats record {|
+    # Base URL of the endpoint
+    string url;
+    # Whether the endpoint is in rotation
+    boolean healthy;
+    # Number of requests sent to the endpoint that have not completed
+    int inFlightRequests;
+    # Smoothed latency (in seconds) of the recent requests sent to the endpoint
+    decimal latency;
+|};
+
+# Statistics of the admission control.
+public type AdmissionStats record {|
+    # Current concurrency limit
+    int concurrencyLimit;
+    # Number of admitted requests that have not completed
+    int inFlightRequests;
+    # Number of interactive requests waiting to be admitted
+    int queuedInteractiveRequests;
+    # Number of batch requests waiting to be admitted
+    int queuedBatchRequests;
+    # Number of requests rejected because the queue was full
+    int rejectedRequests;
+    # Number of requests rejected because they were not admitted within the maximum queue wait
+    int timedOutRequests;
+|};
+
+# Statistics of the response cache.
+public type ResponseCacheStats record {|
+    # Number of responses found in memory
+    int hits;
+    # Number of responses found in the file
+    int fileHits;
+    # Number of requests whose responses were not cached
+    int misses;
+    # Number of responses held in memory
+    int entries;
+|};
+
 // Configs obtained from: https://github.com/ollama/ollama/blob/main/docs/modelfile.md#parameter
 # Represents the model parameters for Ollama text generation.
 # These parameters control the behavior and output of the model.
@@ -162,9 +469,27 @@ public type OllamaModelParameters record {|
 type OllamaResponse record {
     string model;
     OllamaMessage message;
+    boolean done?;
     string done_reason?;
     int prompt_eval_count?;
     int eval_count?;
+    int total_duration?;
+    int load_duration?;
+    int prompt_eval_duration?;
+    int eval_duration?;
+    // Set on the responses served from the response cache, for which no tokens were evaluated.
+    boolean cached?;
+};
+
+type OllamaEmbedResponse record {
+    string model;
+    float[][] embeddings;
+    int prompt_eval_count?;
+};
+
+// Error frame emitted by Ollama when a streamed generation fails midway.
+type OllamaErrorFrame record {
+    string 'error;
 };
 
 type OllamaMessage record {
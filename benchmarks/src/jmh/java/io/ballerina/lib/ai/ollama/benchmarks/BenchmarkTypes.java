@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama.benchmarks;
+
+import io.ballerina.runtime.api.Module;
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.flags.SymbolFlags;
+import io.ballerina.runtime.api.types.Field;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.RecordType;
+import io.ballerina.runtime.api.types.ReferenceType;
+import io.ballerina.runtime.api.types.Type;
+import io.ballerina.runtime.api.types.TypeTags;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import io.ballerina.runtime.internal.types.BAnnotatableType;
+import io.ballerina.runtime.internal.types.BTypeReferenceType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runtime types and values shaped like the ones the compiled Ballerina code passes to the native functions of
+ * the package. Record types carry the {@code ai:JsonSchema} annotation that the compiler plugin adds to the types
+ * used with {@code generate}.
+ *
+ * @since 1.2.4
+ */
+final class BenchmarkTypes {
+    private static final Module MODULE = new Module("benchmarks", "types", "1");
+    private static final BString JSON_SCHEMA_ANNOTATION = StringUtils.fromString("ballerina/ai:1:JsonSchema");
+    private static final long REQUIRED_FIELD = SymbolFlags.REQUIRED | SymbolFlags.PUBLIC;
+
+    static final Type ADDRESS = createRecord("Address", fields("street", PredefinedTypes.TYPE_STRING,
+            "city", PredefinedTypes.TYPE_STRING, "postalCode", PredefinedTypes.TYPE_INT));
+    static final Type PERSON = createRecord("Person", fields("name", PredefinedTypes.TYPE_STRING,
+            "age", PredefinedTypes.TYPE_INT, "address", ADDRESS,
+            "tags", TypeCreator.createArrayType(PredefinedTypes.TYPE_STRING)));
+    static final Type REVIEW = createRecord("Review", fields("rating", PredefinedTypes.TYPE_INT,
+            "comment", PredefinedTypes.TYPE_STRING, "reviewer", PERSON));
+
+    private BenchmarkTypes() {
+    }
+
+    // Builds a closed record type and a reference to it, as the compiler does for a type definition.
+    private static Type createRecord(String name, Map<String, Type> fieldTypes) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        fieldTypes.forEach((fieldName, type) ->
+                fields.put(fieldName, TypeCreator.createField(type, fieldName, REQUIRED_FIELD)));
+        RecordType recordType = TypeCreator.createRecordType(name, MODULE, 0, fields, null, true, 0);
+        BMap<BString, Object> annotations = ValueCreator.createMapValue();
+        annotations.put(JSON_SCHEMA_ANNOTATION, getSchema(fieldTypes));
+        ((BAnnotatableType) recordType).setAnnotations(annotations);
+
+        ReferenceType referenceType = TypeCreator.createTypeReferenceType(name, MODULE, 0, false);
+        ((BTypeReferenceType) referenceType).setReferredType(recordType);
+        return referenceType;
+    }
+
+    private static BMap<BString, Object> getSchema(Map<String, Type> fieldTypes) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        fieldTypes.forEach((fieldName, type) -> properties.put(fieldName, getSchema(type)));
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("required", List.copyOf(fieldTypes.keySet()));
+        schema.put("properties", properties);
+        return toJson(schema);
+    }
+
+    private static Object getSchema(Type type) {
+        if (type instanceof ReferenceType referenceType) {
+            RecordType recordType = (RecordType) referenceType.getReferredType();
+            return ((BAnnotatableType) recordType).getAnnotations().get(JSON_SCHEMA_ANNOTATION);
+        }
+        return switch (type.getTag()) {
+            case TypeTags.INT_TAG -> toJson(Map.of("type", "integer"));
+            case TypeTags.ARRAY_TAG -> toJson(Map.of("type", "array",
+                    "items", Map.of("type", "string")));
+            default -> toJson(Map.of("type", "string"));
+        };
+    }
+
+    static Map<String, Type> fields(Object... namesAndTypes) {
+        Map<String, Type> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndTypes.length; i += 2) {
+            fields.put((String) namesAndTypes[i], (Type) namesAndTypes[i + 1]);
+        }
+        return fields;
+    }
+
+    // Converts maps, lists and strings into the equivalent Ballerina JSON values.
+    @SuppressWarnings("unchecked")
+    static <T> T toJson(Object value) {
+        if (value instanceof BMap<?, ?> || value instanceof BArray) {
+            return (T) value;
+        }
+        if (value instanceof String text) {
+            return (T) StringUtils.fromString(text);
+        }
+        if (value instanceof Integer number) {
+            return (T) Long.valueOf(number);
+        }
+        if (value instanceof List<?> list) {
+            BArray array = ValueCreator.createArrayValue(TypeCreator.createArrayType(PredefinedTypes.TYPE_JSON));
+            list.forEach(member -> array.append(toJson(member)));
+            return (T) array;
+        }
+        if (value instanceof Map<?, ?> map) {
+            BMap<BString, Object> mapping = ValueCreator.createMapValue(
+                    TypeCreator.createMapType(PredefinedTypes.TYPE_JSON));
+            map.forEach((key, member) -> mapping.put(StringUtils.fromString((String) key), toJson(member)));
+            return (T) mapping;
+        }
+        return (T) value;
+    }
+}
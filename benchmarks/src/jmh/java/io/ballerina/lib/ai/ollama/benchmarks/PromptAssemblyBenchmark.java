@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama.benchmarks;
+
+import io.ballerina.lib.ai.ollama.PromptBuilder;
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.runtime.api.values.BString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Measures the assembly of the prompt text by {@link PromptBuilder#buildPrompt} for a retrieval-style prompt
+ * that inserts a list of text chunks along with a document and a plain value.
+ *
+ * @since 1.2.4
+ */
+@State(Scope.Benchmark)
+public class PromptAssemblyBenchmark {
+    private static final long DOCUMENT_INSERTION = 0;
+    private static final long DOCUMENTS_INSERTION = 1;
+    private static final long VALUE_INSERTION = 2;
+    private static final BString SUFFIX = StringUtils.fromString(
+            "\nDo not respond with text. You must submit your response by calling the `getResults` tool.");
+
+    @Param({"10", "100", "1000"})
+    public int chunkCount;
+
+    @Param({"512"})
+    public int chunkLength;
+
+    private BObject prompt;
+    private BArray kinds;
+
+    @Setup
+    public void setup() {
+        BArray chunks = ValueCreator.createArrayValue(TypeCreator.createArrayType(PredefinedTypes.TYPE_ANYDATA));
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.append(createDocument(("Chunk " + i + " ").repeat(chunkLength / 8)));
+        }
+        BArray strings = ValueCreator.createArrayValue(new BString[]{
+                StringUtils.fromString("Answer the question using the context.\nContext: "),
+                StringUtils.fromString("\nInstructions: "),
+                StringUtils.fromString("\nReturn at most "),
+                StringUtils.fromString(" answers.")
+        });
+        BArray insertions = ValueCreator.createArrayValue(TypeCreator.createArrayType(PredefinedTypes.TYPE_ANYDATA));
+        insertions.append(chunks);
+        insertions.append(createDocument("Cite the chunks that the answer is based on."));
+        insertions.append(3L);
+        prompt = createPrompt(strings, insertions);
+        kinds = ValueCreator.createArrayValue(new long[]{DOCUMENTS_INSERTION, DOCUMENT_INSERTION, VALUE_INSERTION});
+    }
+
+    @Benchmark
+    public BString buildPrompt() {
+        BArray images = ValueCreator.createArrayValue(
+                TypeCreator.createArrayType(TypeCreator.createArrayType(PredefinedTypes.TYPE_BYTE)));
+        return PromptBuilder.buildPrompt(prompt, kinds, SUFFIX, images);
+    }
+
+    private static BMap<BString, Object> createDocument(String content) {
+        return BenchmarkTypes.toJson(Map.of("type", "text", "content", content));
+    }
+
+    // The prompt builder only reads the fields of the `ai:Prompt` object, so a proxy stands in for the object
+    // that would otherwise require the compiled `ballerina/ai` module.
+    private static BObject createPrompt(BArray strings, BArray insertions) {
+        Map<String, BArray> fields = Map.of("strings", strings, "insertions", insertions);
+        return (BObject) Proxy.newProxyInstance(BObject.class.getClassLoader(), new Class<?>[]{BObject.class},
+                (proxy, method, args) -> {
+                    if ("get".equals(method.getName()) && args != null && args[0] instanceof BString field) {
+                        return fields.get(field.getValue());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama.benchmarks;
+
+import io.ballerina.lib.ai.ollama.ResponseDecoder;
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.Type;
+import io.ballerina.runtime.api.utils.JsonUtils;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.utils.ValueUtils;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import io.ballerina.runtime.api.values.BTypedesc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+
+/**
+ * Measures decoding the arguments of a {@code getResults} tool call: parsing the JSON text and converting it to
+ * the expected type, either directly for object schemas or after taking the {@code result} field of a wrapped
+ * schema. {@code bindArguments} measures binding the arguments that are already parsed along with the response,
+ * as {@code ResponseDecoder} does, which leaves out serializing and parsing the arguments again.
+ *
+ * <p>Values of record types can only be created through the value creators of a compiled module, so the
+ * expected types are the mapping types that the records correspond to.
+ *
+ * @since 1.2.4
+ */
+@State(Scope.Benchmark)
+public class ResponseDecodingBenchmark {
+    private static final BString RESULT = StringUtils.fromString("result");
+    private static final String REVIEW = """
+            {"rating": 8, "comment": "A well structured article with clear examples and a strong conclusion.",
+            "reviewer": {"name": "Alice", "age": 34, "tags": ["editor", "tech"],
+            "address": {"street": "12 Main Street", "city": "Colombo", "postalCode": 10100}}}""";
+
+    @Param({"object", "wrappedArray", "wrappedValue"})
+    public String schema;
+
+    @Param({"10"})
+    public int elementCount;
+
+    private String response;
+    private Type expectedType;
+    private boolean isOriginallyJsonObject;
+    private BMap<BString, Object> arguments;
+    private BTypedesc expectedTypedesc;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Type mappingType = TypeCreator.createMapType(PredefinedTypes.TYPE_JSON);
+        switch (schema) {
+            case "object" -> {
+                response = REVIEW;
+                expectedType = mappingType;
+                isOriginallyJsonObject = true;
+            }
+            case "wrappedArray" -> {
+                response = "{\"result\": [" + String.join(", ", Collections.nCopies(elementCount, REVIEW))
+                        + "]}";
+                expectedType = TypeCreator.createArrayType(mappingType);
+                isOriginallyJsonObject = false;
+            }
+            case "wrappedValue" -> {
+                response = "{\"result\": 8}";
+                expectedType = PredefinedTypes.TYPE_INT;
+                isOriginallyJsonObject = false;
+            }
+            default -> throw new IllegalArgumentException("Unknown schema: " + schema);
+        }
+        arguments = (BMap<BString, Object>) JsonUtils.parse(response);
+        expectedTypedesc = ValueCreator.createTypedescValue(expectedType);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object parseResponse() {
+        Object value = JsonUtils.parse(response);
+        if (!isOriginallyJsonObject) {
+            value = ((BMap<BString, Object>) value).get(RESULT);
+        }
+        return ValueUtils.convert(value, expectedType);
+    }
+
+    @Benchmark
+    public Object bindArguments() {
+        Object value = isOriginallyJsonObject ? arguments : arguments.get(RESULT);
+        return ResponseDecoder.bindResponseValue(value, expectedTypedesc);
+    }
+}
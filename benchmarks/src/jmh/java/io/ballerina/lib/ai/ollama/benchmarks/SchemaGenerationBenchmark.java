@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama.benchmarks;
+
+import io.ballerina.lib.ai.ollama.Native;
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.Type;
+import io.ballerina.runtime.api.values.BTypedesc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the runtime schema generation done by {@link Native#generateJsonSchemaForTypedescNative} for the
+ * expected types of {@code generate} calls that do not carry a schema annotation themselves.
+ *
+ * @since 1.2.4
+ */
+@State(Scope.Benchmark)
+public class SchemaGenerationBenchmark {
+    @Param({"record", "recordArray", "nestedArray", "union", "nilableUnion"})
+    public String shape;
+
+    private BTypedesc typedesc;
+
+    @Setup
+    public void setup() {
+        Type type = switch (shape) {
+            case "record" -> BenchmarkTypes.REVIEW;
+            case "recordArray" -> TypeCreator.createArrayType(BenchmarkTypes.REVIEW);
+            case "nestedArray" -> TypeCreator.createArrayType(TypeCreator.createArrayType(BenchmarkTypes.PERSON));
+            case "union" -> TypeCreator.createUnionType(BenchmarkTypes.REVIEW, BenchmarkTypes.PERSON,
+                    BenchmarkTypes.ADDRESS);
+            case "nilableUnion" -> TypeCreator.createUnionType(
+                    TypeCreator.createArrayType(BenchmarkTypes.REVIEW), PredefinedTypes.TYPE_STRING,
+                    PredefinedTypes.TYPE_NULL);
+            default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+        };
+        typedesc = ValueCreator.createTypedescValue(type);
+    }
+
+    @Benchmark
+    public Object generateSchema() {
+        return Native.generateJsonSchemaForTypedescNative(typedesc);
+    }
+}
@@ -18,10 +18,16 @@
 
 package io.ballerina.lib.ai.ollama;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.ballerina.compiler.api.ModuleID;
 import io.ballerina.compiler.api.SemanticModel;
 import io.ballerina.compiler.api.Types;
 import io.ballerina.compiler.api.symbols.ArrayTypeSymbol;
 import io.ballerina.compiler.api.symbols.ClassSymbol;
+import io.ballerina.compiler.api.symbols.IntersectionTypeSymbol;
+import io.ballerina.compiler.api.symbols.MapTypeSymbol;
+import io.ballerina.compiler.api.symbols.ModuleSymbol;
 import io.ballerina.compiler.api.symbols.RecordTypeSymbol;
 import io.ballerina.compiler.api.symbols.Symbol;
 import io.ballerina.compiler.api.symbols.TupleTypeSymbol;
@@ -30,24 +36,31 @@ import io.ballerina.compiler.api.symbols.TypeSymbol;
 import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
 import io.ballerina.compiler.syntax.tree.AnnotationNode;
 import io.ballerina.compiler.syntax.tree.ExpressionNode;
+import io.ballerina.compiler.syntax.tree.FunctionArgumentNode;
 import io.ballerina.compiler.syntax.tree.IdentifierToken;
 import io.ballerina.compiler.syntax.tree.ImportDeclarationNode;
 import io.ballerina.compiler.syntax.tree.ImportOrgNameNode;
 import io.ballerina.compiler.syntax.tree.ImportPrefixNode;
 import io.ballerina.compiler.syntax.tree.MappingConstructorExpressionNode;
 import io.ballerina.compiler.syntax.tree.MetadataNode;
+import io.ballerina.compiler.syntax.tree.ModuleMemberDeclarationNode;
 import io.ballerina.compiler.syntax.tree.ModulePartNode;
+import io.ballerina.compiler.syntax.tree.NameReferenceNode;
+import io.ballerina.compiler.syntax.tree.NamedArgumentNode;
 import io.ballerina.compiler.syntax.tree.Node;
 import io.ballerina.compiler.syntax.tree.NodeFactory;
 import io.ballerina.compiler.syntax.tree.NodeList;
 import io.ballerina.compiler.syntax.tree.NodeParser;
 import io.ballerina.compiler.syntax.tree.NodeVisitor;
 import io.ballerina.compiler.syntax.tree.QualifiedNameReferenceNode;
+import io.ballerina.compiler.syntax.tree.PositionalArgumentNode;
 import io.ballerina.compiler.syntax.tree.RemoteMethodCallActionNode;
+import io.ballerina.compiler.syntax.tree.SeparatedNodeList;
 import io.ballerina.compiler.syntax.tree.SimpleNameReferenceNode;
 import io.ballerina.compiler.syntax.tree.SyntaxKind;
 import io.ballerina.compiler.syntax.tree.TreeModifier;
 import io.ballerina.compiler.syntax.tree.TypeDefinitionNode;
+import io.ballerina.compiler.syntax.tree.TypeDescriptorNode;
 import io.ballerina.openapi.service.mapper.type.TypeMapper;
 import io.ballerina.projects.Document;
 import io.ballerina.projects.DocumentId;
@@ -57,19 +70,24 @@ import io.ballerina.projects.Package;
 import io.ballerina.projects.PackageCompilation;
 import io.ballerina.projects.plugins.ModifierTask;
 import io.ballerina.projects.plugins.SourceModifierContext;
+import io.ballerina.tools.diagnostics.Location;
+import io.ballerina.tools.text.LineRange;
 import io.ballerina.tools.text.TextDocument;
 import io.swagger.v3.core.util.Json;
 import io.swagger.v3.core.util.OpenAPISchema2JsonSchema;
 import io.swagger.v3.oas.models.media.Schema;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
-import static io.ballerina.projects.util.ProjectConstants.EMPTY_STRING;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Modifier to add JSON schema annotations
@@ -84,8 +102,14 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
     private static final String OLLAMA_MODEL_PROVIDER_MODULE_NAME = "ai.ollama";
     private static final String OLLAMA_MODEL_PROVIDER_MODULE_VERSION = "1";
     private static final String OLLAMA_MODEL_PROVIDER_MODULE_ORG = "ballerinax";
+    private static final String GENERATED_TYPE_NAME_PREFIX = "AiOllamaGeneratedType";
+    private static final String EXPECTED_TYPE_PARAMETER_NAME = "td";
+    private static final String OLLAMA_MODULE_PREFIX = "ollama";
+    private static final String COMPILED_SCHEMA_ANNOTATION_IDENTIFIER = "CompiledSchema";
     private final AiOllamaCodeModifier.AnalysisData analysisData;
     private final ModifierData modifierData;
+    private Package currentPackage;
+    private SchemaBuildCache buildCache;
 
     public GenerateMethodModificationTask(AiOllamaCodeModifier.AnalysisData analysisData) {
         this.analysisData = analysisData;
@@ -100,6 +124,10 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
             return;
         }
 
+        this.currentPackage = currentPackage;
+        this.buildCache = SchemaBuildCache.load(currentPackage.project());
+        modifierData.isOllamaPackage = OLLAMA_MODEL_PROVIDER_MODULE_ORG.equals(currentPackage.packageOrg().value())
+                && OLLAMA_MODEL_PROVIDER_MODULE_NAME.equals(currentPackage.packageName().value());
         for (ModuleId moduleId : currentPackage.moduleIds()) {
             Module module = currentPackage.module(moduleId);
             SemanticModel semanticModel = compilation.getSemanticModel(moduleId);
@@ -111,6 +139,7 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
                     types.getTypeByName(OLLAMA_MODEL_PROVIDER_MODULE_ORG, OLLAMA_MODEL_PROVIDER_MODULE_NAME,
                             OLLAMA_MODEL_PROVIDER_MODULE_VERSION, OLLAMA_MODEL_PROVIDER_NAME);
 
+            // Queries of the semantic model are not thread-safe, so the call sites are analyzed sequentially.
             for (DocumentId documentId : documentIds) {
                 analyzeDocument(module, documentId, semanticModel, ollamaModelProviderSymbol);
             }
@@ -119,16 +148,69 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
                 analyzeDocument(module, documentId, semanticModel, ollamaModelProviderSymbol);
             }
 
-            for (DocumentId documentId : documentIds) {
-                modifierContext.modifySourceFile(modifyDocument(module.document(documentId),
-                        modifierData), documentId);
+            modifyDocuments(module, documentIds).forEach((documentId, textDocument) ->
+                    modifierContext.modifySourceFile(textDocument, documentId));
+            modifyDocuments(module, testDocumentIds).forEach((documentId, textDocument) ->
+                    modifierContext.modifyTestSourceFile(textDocument, documentId));
+        }
+        this.buildCache.save();
+    }
+
+    // Adding the annotations only rewrites the syntax trees of the documents, so the documents are modified
+    // in parallel and the modified documents are applied to the context afterwards.
+    private Map<DocumentId, TextDocument> modifyDocuments(Module module, Collection<DocumentId> documentIds) {
+        if (modifierData.typeSchemas.isEmpty() && modifierData.generatedTypes.isEmpty()) {
+            return Map.of();
+        }
+        List<Document> documents = documentIds.stream().map(module::document).toList();
+        return documents.parallelStream().collect(Collectors.toMap(Document::documentId,
+                document -> modifyDocument(document, modifierData)));
+    }
+
+    // Returns the source of the definition of the type, including its documentation and annotations. Types
+    // of other packages are identified by their module and version instead.
+    private String getSource(TypeReferenceTypeSymbol typeReference) {
+        Symbol definition = typeReference.definition();
+        Optional<ModuleSymbol> moduleSymbol = definition.getModule();
+        Optional<Location> location = definition.getLocation();
+        if (moduleSymbol.isEmpty() || location.isEmpty()) {
+            return typeReference.signature();
+        }
+        ModuleID moduleId = moduleSymbol.get().id();
+        if (moduleId.orgName().equals(currentPackage.packageOrg().value())
+                && moduleId.packageName().equals(currentPackage.packageName().value())) {
+            Optional<String> source = getTypeDefinitionSource(moduleId.moduleName(), location.get());
+            if (source.isPresent()) {
+                return source.get();
             }
+        }
+        return moduleId.orgName() + "/" + moduleId.moduleName() + ":" + moduleId.version();
+    }
 
-            for (DocumentId documentId : testDocumentIds) {
-                modifierContext.modifyTestSourceFile(modifyDocument(module.document(documentId),
-                        modifierData), documentId);
+    private Optional<String> getTypeDefinitionSource(String moduleName, Location location) {
+        for (ModuleId moduleId : currentPackage.moduleIds()) {
+            Module module = currentPackage.module(moduleId);
+            if (!module.moduleName().toString().equals(moduleName)) {
+                continue;
+            }
+            List<DocumentId> documentIds = new ArrayList<>(module.documentIds());
+            documentIds.addAll(module.testDocumentIds());
+            for (DocumentId documentId : documentIds) {
+                Document document = module.document(documentId);
+                if (!document.name().equals(location.lineRange().fileName())) {
+                    continue;
+                }
+                ModulePartNode rootNode = document.syntaxTree().rootNode();
+                Node node = rootNode.findNode(location.textRange());
+                while (node != null && node.kind() != SyntaxKind.TYPE_DEFINITION) {
+                    node = node.parent();
+                }
+                if (node != null) {
+                    return Optional.of(node.toSourceCode());
+                }
             }
         }
+        return Optional.empty();
     }
 
     private void analyzeDocument(Module module, DocumentId documentId, SemanticModel semanticModel,
@@ -139,7 +221,8 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
             return;
         }
 
-        analyzeGenerateMethod(semanticModel, modulePartNode, ollamaModelProviderSymbol, this.analysisData);
+        new GenerateMethodJsonSchemaGenerator(semanticModel, ollamaModelProviderSymbol, this.analysisData, module,
+                documentId, modulePartNode).generate(modulePartNode);
     }
 
     private static TextDocument modifyDocument(Document document, ModifierData modifierData) {
@@ -148,17 +231,34 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
         String aiImportPrefix = getAiModuleImportPrefix(modulePartNode.imports());
         boolean isAiImportPresent = aiImportPrefix != null;
 
-        TypeDefinitionModifier typeDefinitionModifier =
-                new TypeDefinitionModifier(modifierData.typeSchemas, document, modifierData,
-                        isAiImportPresent ? aiImportPrefix : AI_MODULE_NAME);
+        String aiPrefix = isAiImportPresent ? aiImportPrefix : AI_MODULE_NAME;
+        String ollamaImportPrefix = getOllamaModuleImportPrefix(modulePartNode.imports());
+        String compiledSchemaAnnotation =
+                getCompiledSchemaAnnotation(modifierData.isOllamaPackage, ollamaImportPrefix);
+        TypeDefinitionModifier typeDefinitionModifier = new TypeDefinitionModifier(modifierData.typeSchemas,
+                document, modifierData, aiPrefix, compiledSchemaAnnotation);
 
         ModulePartNode finalRoot = (ModulePartNode) modulePartNode.apply(typeDefinitionModifier);
+        NodeList<ModuleMemberDeclarationNode> members = finalRoot.members();
+        boolean isCompiledSchemaAdded = typeDefinitionModifier.isCompiledSchemaAdded;
+        Map<String, GeneratedType> generatedTypes = modifierData.generatedTypes.get(documentId);
+        if (generatedTypes != null) {
+            for (GeneratedType generatedType : generatedTypes.values()) {
+                members = members.add(generatedType.createTypeDefinition(aiPrefix, compiledSchemaAnnotation));
+            }
+            modifierData.aiImportRequiredDocuments.add(documentId);
+            isCompiledSchemaAdded |= compiledSchemaAnnotation != null;
+        }
         NodeList<ImportDeclarationNode> imports = finalRoot.imports();
         if (modifierData.aiImportRequiredDocuments.contains(documentId) && !isAiImportPresent) {
             imports = imports.add(createImportDeclarationForAIModule());
         }
+        if (isCompiledSchemaAdded && !modifierData.isOllamaPackage && ollamaImportPrefix == null) {
+            imports = imports.add(NodeParser.parseImportDeclaration(String.format("import %s/%s;",
+                    OLLAMA_MODEL_PROVIDER_MODULE_ORG, OLLAMA_MODEL_PROVIDER_MODULE_NAME)));
+        }
 
-        finalRoot = finalRoot.modify(imports, finalRoot.members(), finalRoot.eofToken());
+        finalRoot = finalRoot.modify(imports, members, finalRoot.eofToken());
         return document.syntaxTree().modifyWith(finalRoot).textDocument();
     }
 
@@ -166,11 +266,34 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
         return NodeParser.parseImportDeclaration(String.format("import %s/%s;", BALLERINA_ORG_NAME, AI_MODULE_NAME));
     }
 
-    private void analyzeGenerateMethod(SemanticModel semanticModel,
-                                       ModulePartNode modulePartNode, Optional<Symbol> ollamaModelProviderSymbol,
-                                       AiOllamaCodeModifier.AnalysisData analysisData) {
-        new GenerateMethodJsonSchemaGenerator(semanticModel, ollamaModelProviderSymbol, analysisData)
-                .generate(modulePartNode);
+    // The annotation is referred to without a prefix within this package. Documents that import this module with
+    // the `_` prefix cannot refer to it, so the response schemas of their types are left to the runtime.
+    private static String getCompiledSchemaAnnotation(boolean isOllamaPackage, String ollamaImportPrefix) {
+        if (isOllamaPackage) {
+            return COMPILED_SCHEMA_ANNOTATION_IDENTIFIER;
+        }
+        if ("_".equals(ollamaImportPrefix)) {
+            return null;
+        }
+        return (ollamaImportPrefix != null ? ollamaImportPrefix : OLLAMA_MODULE_PREFIX)
+                + TypeDefinitionModifier.COLON + COMPILED_SCHEMA_ANNOTATION_IDENTIFIER;
+    }
+
+    private static String getOllamaModuleImportPrefix(NodeList<ImportDeclarationNode> imports) {
+        for (ImportDeclarationNode importDeclarationNode : imports) {
+            Optional<ImportOrgNameNode> importOrgNameNode = importDeclarationNode.orgName();
+            if (importOrgNameNode.isEmpty()
+                    || !OLLAMA_MODEL_PROVIDER_MODULE_ORG.equals(importOrgNameNode.get().orgName().text())) {
+                continue;
+            }
+            StringJoiner moduleName = new StringJoiner(".");
+            importDeclarationNode.moduleName().forEach(identifier -> moduleName.add(identifier.text()));
+            if (OLLAMA_MODEL_PROVIDER_MODULE_NAME.equals(moduleName.toString())) {
+                return importDeclarationNode.prefix().map(prefix -> prefix.prefix().text())
+                        .orElse(OLLAMA_MODULE_PREFIX);
+            }
+        }
+        return null;
     }
 
     private static String getAiModuleImportPrefix(NodeList<ImportDeclarationNode> imports) {
@@ -214,12 +337,19 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
         private final SemanticModel semanticModel;
         private final TypeMapper typeMapper;
         private final ClassSymbol ollamaProviderSymbol;
+        private final Module module;
+        private final DocumentId documentId;
+        private final ModulePartNode modulePartNode;
 
         public GenerateMethodJsonSchemaGenerator(SemanticModel semanticModel,
                                                  Optional<Symbol> ollamaModelProviderSymbolOpt,
-                                                 AiOllamaCodeModifier.AnalysisData analyserData) {
+                                                 AiOllamaCodeModifier.AnalysisData analyserData, Module module,
+                                                 DocumentId documentId, ModulePartNode modulePartNode) {
             this.semanticModel = semanticModel;
             this.typeMapper = analyserData.typeMapper;
+            this.module = module;
+            this.documentId = documentId;
+            this.modulePartNode = modulePartNode;
             if (ollamaModelProviderSymbolOpt.isEmpty()) {
                 this.ollamaProviderSymbol = null;
                 return;
@@ -256,19 +386,134 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
         }
 
         private void updateTypeSchemaForTypeDef(RemoteMethodCallActionNode remoteMethodCallActionNode) {
-            semanticModel.typeOf(remoteMethodCallActionNode).ifPresent(symbol -> populateTypeSchema(symbol,
-                    this.typeMapper, modifierData.typeSchemas, this.semanticModel.types().ANYDATA));
+            semanticModel.typeOf(remoteMethodCallActionNode).ifPresent(symbol -> {
+                populateTypeSchema(symbol, this.typeMapper, modifierData.typeSchemas,
+                        this.semanticModel.types().ANYDATA);
+                addGeneratedType(remoteMethodCallActionNode, symbol);
+            });
+        }
+
+        // The type definition of the expected type is annotated with the complete response schema, along with
+        // its schema. An expected type that is not a type definition, such as an inline record or a tuple, has
+        // no type definition to attach the schemas to. An equivalent type is defined with the schemas instead,
+        // and the call site is changed to pass it as the expected type. Types that cannot be written, or that
+        // refer to types without a schema, are left to the schema generation at runtime.
+        private void addGeneratedType(RemoteMethodCallActionNode remoteMethodCallActionNode, TypeSymbol returnType) {
+            List<TypeSymbol> expectedTypes = (returnType instanceof UnionTypeSymbol unionType
+                    ? unionType.memberTypeDescriptors() : List.of(returnType)).stream()
+                    .filter(memberType -> !memberType.subtypeOf(this.semanticModel.types().ERROR))
+                    .toList();
+            if (expectedTypes.size() == 1 && expectedTypes.get(0) instanceof TypeReferenceTypeSymbol typeReference) {
+                typeReference.definition().getName().filter(modifierData.typeSchemas::containsKey)
+                        .ifPresent(modifierData.responseSchemaTypes::add);
+                return;
+            }
+            if (expectedTypes.isEmpty()
+                    || expectedTypes.size() == 1 && InlineTypes.isSimpleType(expectedTypes.get(0))
+                    || !isExpectedTypeWrittenInline(remoteMethodCallActionNode)) {
+                return;
+            }
+
+            String source = InlineTypes.getSource(expectedTypes, this::getReferenceName);
+            if (source == null) {
+                return;
+            }
+            Map<String, GeneratedType> documentTypes =
+                    modifierData.generatedTypes.computeIfAbsent(this.documentId, id -> new HashMap<>());
+            GeneratedType generatedType = documentTypes.get(source);
+            if (generatedType == null) {
+                JsonNode schema = InlineTypes.getSchema(expectedTypes, modifierData.typeSchemas::get);
+                if (schema == null) {
+                    return;
+                }
+                // Generated types are module-level definitions, so the names are unique across the package.
+                String name = GENERATED_TYPE_NAME_PREFIX + ++modifierData.generatedTypeCount;
+                generatedType = new GeneratedType(name, source, schema.toString());
+                documentTypes.put(source, generatedType);
+            }
+            modifierData.callSiteTypes.computeIfAbsent(this.documentId, id -> new HashMap<>())
+                    .put(remoteMethodCallActionNode.lineRange(), generatedType.name());
+        }
+
+        // A typedesc that is passed as a variable or another expression may describe a different type than the
+        // static return type, so only calls whose expected type is inferred or written as a type descriptor are
+        // changed to pass the generated type.
+        private static boolean isExpectedTypeWrittenInline(RemoteMethodCallActionNode remoteMethodCallActionNode) {
+            int position = 0;
+            for (FunctionArgumentNode argument : remoteMethodCallActionNode.arguments()) {
+                ExpressionNode expression;
+                if (argument instanceof PositionalArgumentNode positionalArgument) {
+                    if (position++ != 1) {
+                        continue;
+                    }
+                    expression = positionalArgument.expression();
+                } else if (argument instanceof NamedArgumentNode namedArgument
+                        && EXPECTED_TYPE_PARAMETER_NAME.equals(namedArgument.argumentName().name().text())) {
+                    expression = namedArgument.expression();
+                } else {
+                    continue;
+                }
+                return expression instanceof TypeDescriptorNode && !(expression instanceof NameReferenceNode);
+            }
+            return true;
+        }
+
+        // Returns the name by which the type definition can be referred to from the document, or null if the
+        // module of the type definition is not imported by the document.
+        private String getReferenceName(TypeReferenceTypeSymbol typeReference) {
+            Symbol definition = typeReference.definition();
+            Optional<String> name = definition.getName();
+            Optional<ModuleSymbol> moduleSymbol = definition.getModule();
+            if (name.isEmpty() || moduleSymbol.isEmpty()) {
+                return null;
+            }
+            ModuleID moduleId = moduleSymbol.get().id();
+            if (moduleId.orgName().equals(currentPackage.packageOrg().value())
+                    && moduleId.moduleName().equals(this.module.moduleName().toString())) {
+                return name.get();
+            }
+            String prefix = getImportPrefix(moduleId);
+            return prefix == null ? null : prefix + TypeDefinitionModifier.COLON + name.get();
+        }
+
+        private String getImportPrefix(ModuleID moduleId) {
+            for (ImportDeclarationNode importDeclarationNode : this.modulePartNode.imports()) {
+                String orgName = importDeclarationNode.orgName()
+                        .map(importOrgNameNode -> importOrgNameNode.orgName().text())
+                        .orElse(currentPackage.packageOrg().value());
+                StringJoiner moduleName = new StringJoiner(".");
+                importDeclarationNode.moduleName().forEach(identifier -> moduleName.add(identifier.text()));
+                if (!orgName.equals(moduleId.orgName()) || !moduleName.toString().equals(moduleId.moduleName())) {
+                    continue;
+                }
+                Optional<ImportPrefixNode> prefix = importDeclarationNode.prefix();
+                if (prefix.isPresent()) {
+                    String prefixText = prefix.get().prefix().text();
+                    return prefixText.equals("_") ? null : prefixText;
+                }
+                NodeList<IdentifierToken> moduleNameParts = importDeclarationNode.moduleName();
+                return moduleNameParts.get(moduleNameParts.size() - 1).text();
+            }
+            return null;
         }
 
-        private static void populateTypeSchema(TypeSymbol memberType, TypeMapper typeMapper,
-                                               Map<String, String> typeSchemas, TypeSymbol anydataType) {
+        private void populateTypeSchema(TypeSymbol memberType, TypeMapper typeMapper,
+                                        Map<String, String> typeSchemas, TypeSymbol anydataType) {
             switch (memberType) {
                 case TypeReferenceTypeSymbol typeReference -> {
-                    if (!typeReference.subtypeOf(anydataType)) {
+                    String typeName = typeReference.definition().getName().get();
+                    // The schema of a type definition is generated once, however many call sites use it.
+                    if (typeSchemas.containsKey(typeName) || !typeReference.subtypeOf(anydataType)) {
+                        return;
+                    }
+                    if (typeReference.typeDescriptor() instanceof TupleTypeSymbol tupleType
+                            && populateTupleSchema(typeName, tupleType, typeMapper, typeSchemas, anydataType)) {
                         return;
                     }
-                    typeSchemas.put(typeReference.definition().getName().get(),
-                            getJsonSchema(typeMapper.getSchema(typeReference)));
+                    String schema = getCachedJsonSchema(typeReference, typeMapper);
+                    if (schema != null) {
+                        typeSchemas.put(typeName, schema);
+                    }
                 }
                 case ArrayTypeSymbol arrayType ->
                         populateTypeSchema(arrayType.memberTypeDescriptor(), typeMapper, typeSchemas, anydataType);
@@ -278,21 +523,59 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
                 case RecordTypeSymbol recordType ->
                         recordType.fieldDescriptors().values().forEach(field ->
                                 populateTypeSchema(field.typeDescriptor(), typeMapper, typeSchemas, anydataType));
+                case MapTypeSymbol mapType ->
+                        populateTypeSchema(mapType.typeParam(), typeMapper, typeSchemas, anydataType);
+                case IntersectionTypeSymbol intersectionType -> intersectionType.memberTypeDescriptors().forEach(
+                        member -> populateTypeSchema(member, typeMapper, typeSchemas, anydataType));
                 case UnionTypeSymbol unionTypeSymbol -> unionTypeSymbol.memberTypeDescriptors().forEach(member ->
                         populateTypeSchema(member, typeMapper, typeSchemas, anydataType));
                 default -> { }
             }
         }
 
+        // The type mapper has no form for tuples that is kept in the schema, so the schema of a tuple type
+        // definition is built as for a tuple written inline. The definition is marked as in progress while its
+        // members are populated, so that a tuple that refers to itself falls back to the type mapper.
+        private boolean populateTupleSchema(String typeName, TupleTypeSymbol tupleType, TypeMapper typeMapper,
+                                            Map<String, String> typeSchemas, TypeSymbol anydataType) {
+            typeSchemas.put(typeName, null);
+            populateTypeSchema(tupleType, typeMapper, typeSchemas, anydataType);
+            tupleType.restTypeDescriptor().ifPresent(restType ->
+                    populateTypeSchema(restType, typeMapper, typeSchemas, anydataType));
+            JsonNode schema = InlineTypes.getSchema(tupleType, typeSchemas::get);
+            if (schema == null) {
+                typeSchemas.remove(typeName);
+                return false;
+            }
+            typeSchemas.put(typeName, schema.toString());
+            return true;
+        }
+
+        private String getCachedJsonSchema(TypeReferenceTypeSymbol typeReference, TypeMapper typeMapper) {
+            if (!buildCache.isEnabled()) {
+                return getJsonSchema(typeMapper.getSchema(typeReference));
+            }
+            String fingerprint = TypeFingerprint.of(typeReference, GenerateMethodModificationTask.this::getSource);
+            String schema = buildCache.get(fingerprint);
+            if (schema == null) {
+                schema = getJsonSchema(typeMapper.getSchema(typeReference));
+                if (schema != null) {
+                    buildCache.put(fingerprint, schema);
+                }
+            }
+            return schema;
+        }
+
+        // Writes the schema as compact JSON, which is also a valid Ballerina mapping constructor.
         private static String getJsonSchema(Schema schema) {
             modifySchema(schema);
             OpenAPISchema2JsonSchema openAPISchema2JsonSchema = new OpenAPISchema2JsonSchema();
             openAPISchema2JsonSchema.process(schema);
-            String newLineRegex = "\\R";
-            String jsonCompressionRegex = "\\s*([{}\\[\\]:,])\\s*";
-            return Json.pretty(schema.getJsonSchema())
-                    .replaceAll(newLineRegex, EMPTY_STRING)
-                    .replaceAll(jsonCompressionRegex, "$1");
+            try {
+                return Json.mapper().writeValueAsString(schema.getJsonSchema());
+            } catch (JsonProcessingException e) {
+                return null;
+            }
         }
 
         private static void modifySchema(Schema schema) {
@@ -330,7 +613,20 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
                 schema.setFormat(null);
                 schema.setType(NUMBER);
             }
+
+            // A tuple nested in a type definition keeps the form of the schema built for a tuple written inline.
+            List<Schema> prefixItems = schema.getPrefixItems();
+            if (prefixItems != null) {
+                prefixItems.forEach(GenerateMethodJsonSchemaGenerator::modifySchema);
+            }
             removeUnwantedFields(schema);
+            if (prefixItems != null) {
+                schema.setPrefixItems(prefixItems);
+                schema.setMinItems(prefixItems.size());
+                if (schema.getItems() == null) {
+                    schema.setMaxItems(prefixItems.size());
+                }
+            }
         }
 
         private static void removeUnwantedFields(Schema schema) {
@@ -391,7 +687,28 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
 
     static final class ModifierData {
         Map<String, String> typeSchemas = new HashMap<>();
-        HashSet<DocumentId> aiImportRequiredDocuments = new HashSet<>();
+        Set<DocumentId> aiImportRequiredDocuments = ConcurrentHashMap.newKeySet();
+        // The types generated for the expected types of the call sites of each document, by their source.
+        Map<DocumentId, Map<String, GeneratedType>> generatedTypes = new HashMap<>();
+        // The names of the generated types to pass at the call sites of each document, by their location.
+        Map<DocumentId, Map<LineRange, String>> callSiteTypes = new HashMap<>();
+        // The type definitions that are the expected types of call sites.
+        Set<String> responseSchemaTypes = new HashSet<>();
+        int generatedTypeCount = 0;
+        boolean isOllamaPackage = false;
+    }
+
+    record GeneratedType(String name, String source, String schema) {
+        ModuleMemberDeclarationNode createTypeDefinition(String aiPrefix, String compiledSchemaAnnotation) {
+            StringBuilder definition = new StringBuilder(String.format("%n@%s:%s %s%n", aiPrefix,
+                    TypeDefinitionModifier.SCHEMA_ANNOTATION_IDENTIFIER, schema));
+            String compiledSchema = GetResultsTool.createAnnotationValue(schema);
+            if (compiledSchemaAnnotation != null && compiledSchema != null) {
+                definition.append(String.format("@%s %s%n", compiledSchemaAnnotation, compiledSchema));
+            }
+            definition.append(String.format("type %s %s;%n", name, source));
+            return NodeParser.parseModuleMemberDeclaration(definition.toString());
+        }
     }
 
     private static class TypeDefinitionModifier extends TreeModifier {
@@ -401,13 +718,61 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
         private final Document document;
         private final ModifierData modifierData;
         private final String aiPrefix;
+        private final Map<LineRange, String> callSiteTypes;
+        private final String compiledSchemaAnnotation;
+        private boolean isCompiledSchemaAdded = false;
 
         TypeDefinitionModifier(Map<String, String> typeSchemas, Document document,
-                               ModifierData modifierData, String aiPrefix) {
+                               ModifierData modifierData, String aiPrefix, String compiledSchemaAnnotation) {
             this.typeSchemas = typeSchemas;
             this.document = document;
             this.modifierData = modifierData;
             this.aiPrefix = aiPrefix != null ? aiPrefix : AI_MODULE_NAME;
+            this.compiledSchemaAnnotation = compiledSchemaAnnotation;
+            this.callSiteTypes = modifierData.callSiteTypes.getOrDefault(document.documentId(), Map.of());
+        }
+
+        @Override
+        public RemoteMethodCallActionNode transform(RemoteMethodCallActionNode remoteMethodCallActionNode) {
+            String generatedTypeName = this.callSiteTypes.get(remoteMethodCallActionNode.lineRange());
+            RemoteMethodCallActionNode modifiedNode = super.transform(remoteMethodCallActionNode);
+            if (generatedTypeName == null) {
+                return modifiedNode;
+            }
+
+            // The expected type is passed by name, replacing an inferred expected type or a type descriptor.
+            List<Node> arguments = new ArrayList<>();
+            int position = 0;
+            for (FunctionArgumentNode argument : modifiedNode.arguments()) {
+                boolean isExpectedType = argument instanceof PositionalArgumentNode
+                        ? position++ == 1
+                        : argument instanceof NamedArgumentNode namedArgument
+                        && EXPECTED_TYPE_PARAMETER_NAME.equals(namedArgument.argumentName().name().text());
+                if (isExpectedType) {
+                    continue;
+                }
+                if (!arguments.isEmpty()) {
+                    arguments.add(createCommaToken());
+                }
+                arguments.add(argument);
+            }
+            if (!arguments.isEmpty()) {
+                arguments.add(createCommaToken());
+            }
+            arguments.add(NodeFactory.createNamedArgumentNode(
+                    NodeFactory.createSimpleNameReferenceNode(
+                            NodeFactory.createIdentifierToken(EXPECTED_TYPE_PARAMETER_NAME)),
+                    NodeFactory.createToken(SyntaxKind.EQUAL_TOKEN,
+                            NodeFactory.createMinutiaeList(NodeFactory.createWhitespaceMinutiae(" ")),
+                            NodeFactory.createMinutiaeList(NodeFactory.createWhitespaceMinutiae(" "))),
+                    NodeFactory.createSimpleNameReferenceNode(NodeFactory.createIdentifierToken(generatedTypeName))));
+            SeparatedNodeList<FunctionArgumentNode> modifiedArguments = NodeFactory.createSeparatedNodeList(arguments);
+            return modifiedNode.modify().withArguments(modifiedArguments).apply();
+        }
+
+        private static Node createCommaToken() {
+            return NodeFactory.createToken(SyntaxKind.COMMA_TOKEN, NodeFactory.createEmptyMinutiaeList(),
+                    NodeFactory.createMinutiaeList(NodeFactory.createWhitespaceMinutiae(" ")));
         }
 
         @Override
@@ -419,20 +784,48 @@ class GenerateMethodModificationTask implements ModifierTask<SourceModifierConte
             }
 
             MetadataNode updatedMetadataNode =
-                    updateMetadata(typeDefinitionNode, typeSchemas.get(typeName));
+                    updateMetadata(typeDefinitionNode, typeSchemas.get(typeName),
+                            modifierData.responseSchemaTypes.contains(typeName));
             return typeDefinitionNode.modify().withMetadata(updatedMetadataNode).apply();
         }
 
-        private MetadataNode updateMetadata(TypeDefinitionNode typeDefinitionNode, String schema) {
+        private MetadataNode updateMetadata(TypeDefinitionNode typeDefinitionNode, String schema,
+                                            boolean isResponseSchemaType) {
             MetadataNode metadataNode = getMetadataNode(typeDefinitionNode);
             NodeList<AnnotationNode> currentAnnotations = metadataNode.annotations();
             NodeList<AnnotationNode> updatedAnnotations = updateAnnotations(currentAnnotations, schema, this.aiPrefix);
             if (currentAnnotations.size() < updatedAnnotations.size()) {
                 modifierData.aiImportRequiredDocuments.add(document.documentId());
             }
+            // A schema written by the user is kept, so the schema generated for the type is not compiled in
+            // place of it. The user's schema is compiled when it is first used instead.
+            boolean hasUserSchema = currentAnnotations.stream()
+                    .anyMatch(annotationNode -> isJsonSchemaAnnotationAvailable(annotationNode, this.aiPrefix));
+            if (isResponseSchemaType && !hasUserSchema && this.compiledSchemaAnnotation != null) {
+                updatedAnnotations = addCompiledSchemaAnnotation(updatedAnnotations, schema);
+            }
             return metadataNode.modify().withAnnotations(updatedAnnotations).apply();
         }
 
+        private NodeList<AnnotationNode> addCompiledSchemaAnnotation(NodeList<AnnotationNode> annotations,
+                                                                     String schema) {
+            for (AnnotationNode annotationNode : annotations) {
+                if (this.compiledSchemaAnnotation.equals(annotationNode.annotReference().toSourceCode().strip())) {
+                    return annotations;
+                }
+            }
+            String compiledSchema = GetResultsTool.createAnnotationValue(schema);
+            if (compiledSchema == null) {
+                return annotations;
+            }
+            this.isCompiledSchemaAdded = true;
+            return annotations.add(NodeFactory.createAnnotationNode(
+                    NodeFactory.createToken(SyntaxKind.AT_TOKEN),
+                    NodeFactory.createSimpleNameReferenceNode(
+                            NodeFactory.createIdentifierToken(this.compiledSchemaAnnotation)),
+                    getAnnotationExpression(compiledSchema)));
+        }
+
         public static MetadataNode getMetadataNode(TypeDefinitionNode typeDefinitionNode) {
             return typeDefinitionNode.metadata().orElseGet(() -> {
                 NodeList<AnnotationNode> annotations = NodeFactory.createNodeList();
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.core.util.Json;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the {@code getResults} tool that a {@code generate} call sends for its expected type, in the form of the
+ * {@code CompiledSchema} annotation value that the runtime uses instead of building the tool on each call.
+ *
+ * @since 1.2.4
+ */
+final class GetResultsTool {
+    private static final Set<String> METADATA_FIELDS =
+            Set.of("$schema", "$id", "$anchor", "$comment", "title", "description");
+    private static final String TYPE = "type";
+    private static final String OBJECT = "object";
+    private static final String RESULT = "result";
+    private static final String DESCRIPTION = "Tool to call to submit the final answer.";
+
+    private GetResultsTool() {
+    }
+
+    /**
+     * Creates the source of the annotation value for the schema of an expected type. Schemas that are not
+     * objects are wrapped in a {@code result} property, as the arguments of a tool call are always an object.
+     * The wrapped schema is also serialized on its own, to be sent as the {@code format} of a request, in which the
+     * {@code result} property is required.
+     *
+     * @param jsonSchema the schema of the expected type
+     * @return the source of the annotation value, or {@code null} if the schema cannot be read
+     */
+    static String createAnnotationValue(String jsonSchema) {
+        JsonNode schema;
+        try {
+            schema = Json.mapper().readTree(jsonSchema);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        if (!(schema instanceof ObjectNode objectSchema)) {
+            return null;
+        }
+
+        boolean isOriginallyJsonObject = OBJECT.equals(objectSchema.path(TYPE).textValue());
+        ObjectNode parameters = isOriginallyJsonObject ? objectSchema : wrapSchema(objectSchema);
+        ArrayNode tools = Json.mapper().createArrayNode();
+        ObjectNode tool = tools.addObject();
+        tool.put(TYPE, "function");
+        ObjectNode function = tool.putObject("function");
+        function.put("name", "getResults");
+        function.set("parameters", parameters);
+        function.put("description", DESCRIPTION);
+        ObjectNode formatSchema = parameters;
+        if (!isOriginallyJsonObject) {
+            formatSchema = parameters.deepCopy();
+            formatSchema.putArray("required").add(RESULT);
+        }
+        return String.format("{schema: %s, isOriginallyJsonObject: %s, encodedTools: %s, encodedSchema: %s}",
+                parameters, isOriginallyJsonObject, toStringLiteral(tools.toString()),
+                toStringLiteral(formatSchema.toString()));
+    }
+
+    // Keeps the metadata of the schema at the top level and moves the rest into the `result` property.
+    private static ObjectNode wrapSchema(ObjectNode schema) {
+        ObjectNode wrappedSchema = Json.mapper().createObjectNode();
+        ObjectNode content = Json.mapper().createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = schema.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (METADATA_FIELDS.contains(field.getKey())) {
+                wrappedSchema.set(field.getKey(), field.getValue());
+            } else {
+                content.set(field.getKey(), field.getValue());
+            }
+        }
+        wrappedSchema.put(TYPE, OBJECT);
+        wrappedSchema.putObject("properties").set(RESULT, content);
+        return wrappedSchema;
+    }
+
+    private static String toStringLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        literal.append(String.format("\\u{%X}", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.ballerina.compiler.api.symbols.ArrayTypeSymbol;
+import io.ballerina.compiler.api.symbols.IntersectionTypeSymbol;
+import io.ballerina.compiler.api.symbols.MapTypeSymbol;
+import io.ballerina.compiler.api.symbols.Qualifier;
+import io.ballerina.compiler.api.symbols.RecordFieldSymbol;
+import io.ballerina.compiler.api.symbols.RecordTypeSymbol;
+import io.ballerina.compiler.api.symbols.SingletonTypeSymbol;
+import io.ballerina.compiler.api.symbols.TupleMemberTypeSymbol;
+import io.ballerina.compiler.api.symbols.TupleTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeDescKind;
+import io.ballerina.compiler.api.symbols.TypeReferenceTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeSymbol;
+import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
+import io.ballerina.compiler.syntax.tree.SyntaxInfo;
+import io.swagger.v3.core.util.Json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes the source and the JSON schema of the expected types of {@code generate} calls that are not type
+ * definitions, such as inline records, tuples and arrays. The source is used to define an equivalent named type
+ * that carries the schema. Both methods return {@code null} for types that cannot be written, which are left to
+ * the schema generation at runtime.
+ *
+ * @since 1.2.4
+ */
+final class InlineTypes {
+    private static final String TYPE = "type";
+
+    private InlineTypes() {
+    }
+
+    /**
+     * Returns whether the type is a basic type, whose schema is generated at runtime without walking the type.
+     *
+     * @param type the type
+     * @return true if the type is a basic simple type
+     */
+    static boolean isSimpleType(TypeSymbol type) {
+        return getSimpleTypeName(type.typeKind()) != null;
+    }
+
+    /**
+     * Writes the source of a type.
+     *
+     * @param type          the type
+     * @param referenceName returns the name of a type definition as it can be referred to from the document that
+     *                      the source is added to, or {@code null} if it cannot be referred to
+     * @return the source of the type, or {@code null} if it cannot be written
+     */
+    static String getSource(TypeSymbol type, Function<TypeReferenceTypeSymbol, String> referenceName) {
+        switch (type) {
+            case TypeReferenceTypeSymbol typeReference -> {
+                return referenceName.apply(typeReference);
+            }
+            case ArrayTypeSymbol arrayType -> {
+                String memberSource = getSource(arrayType.memberTypeDescriptor(), referenceName);
+                if (memberSource == null) {
+                    return null;
+                }
+                String size = arrayType.size().map(String::valueOf).orElse("");
+                return isCompound(arrayType.memberTypeDescriptor())
+                        ? "(" + memberSource + ")[" + size + "]"
+                        : memberSource + "[" + size + "]";
+            }
+            case TupleTypeSymbol tupleType -> {
+                List<String> memberSources = new ArrayList<>();
+                for (TupleMemberTypeSymbol member : tupleType.members()) {
+                    memberSources.add(getSource(member.typeDescriptor(), referenceName));
+                }
+                if (tupleType.restTypeDescriptor().isPresent()) {
+                    String restSource = getSource(tupleType.restTypeDescriptor().get(), referenceName);
+                    memberSources.add(restSource == null ? null : restSource + "...");
+                }
+                return memberSources.contains(null) ? null : "[" + String.join(", ", memberSources) + "]";
+            }
+            case RecordTypeSymbol recordType -> {
+                StringBuilder source = new StringBuilder("record {|");
+                for (Map.Entry<String, RecordFieldSymbol> entry : recordType.fieldDescriptors().entrySet()) {
+                    RecordFieldSymbol field = entry.getValue();
+                    String fieldSource = getSource(field.typeDescriptor(), referenceName);
+                    // Default values cannot be written from the symbol, so such records are left to the runtime.
+                    if (fieldSource == null || field.hasDefaultValue()) {
+                        return null;
+                    }
+                    source.append(' ');
+                    if (field.qualifiers().contains(Qualifier.READONLY)) {
+                        source.append("readonly ");
+                    }
+                    source.append(fieldSource).append(' ').append(getFieldName(entry.getKey()))
+                            .append(field.isOptional() ? "?;" : ";");
+                }
+                if (recordType.restTypeDescriptor().isPresent()) {
+                    String restSource = getSource(recordType.restTypeDescriptor().get(), referenceName);
+                    if (restSource == null) {
+                        return null;
+                    }
+                    source.append(' ').append(restSource).append("...;");
+                }
+                return source.append(" |}").toString();
+            }
+            case MapTypeSymbol mapType -> {
+                String constraintSource = getSource(mapType.typeParam(), referenceName);
+                return constraintSource == null ? null : "map<" + constraintSource + ">";
+            }
+            case UnionTypeSymbol unionType -> {
+                return getSource(unionType.memberTypeDescriptors(), referenceName);
+            }
+            case IntersectionTypeSymbol intersectionType -> {
+                return joinSources(intersectionType.memberTypeDescriptors(), " & ", referenceName);
+            }
+            case SingletonTypeSymbol singletonType -> {
+                return singletonType.signature();
+            }
+            default -> {
+                return getSimpleTypeName(type.typeKind()) != null || type.typeKind() == TypeDescKind.READONLY
+                        ? type.signature()
+                        : null;
+            }
+        }
+    }
+
+    /**
+     * Builds the JSON schema of a type, in the form that the schema generation at runtime would produce. Tuple
+     * schemas are also built by this method for tuple type definitions, so that a tuple has the same schema whether
+     * it is written inline or defined as a type.
+     *
+     * @param type         the type
+     * @param namedSchemas returns the schema generated for a type definition, or {@code null} if there is none
+     * @return the schema, or {@code null} if the schema cannot be built
+     */
+    static JsonNode getSchema(TypeSymbol type, Function<String, String> namedSchemas) {
+        switch (type) {
+            case TypeReferenceTypeSymbol typeReference -> {
+                String schema = typeReference.definition().getName().map(namedSchemas).orElse(null);
+                if (schema == null) {
+                    return null;
+                }
+                try {
+                    return Json.mapper().readTree(schema);
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+            }
+            case ArrayTypeSymbol arrayType -> {
+                JsonNode items = getSchema(arrayType.memberTypeDescriptor(), namedSchemas);
+                if (items == null) {
+                    return null;
+                }
+                ObjectNode schema = createSchema("array");
+                schema.set("items", items);
+                return schema;
+            }
+            case TupleTypeSymbol tupleType -> {
+                ObjectNode schema = createSchema("array");
+                ArrayNode prefixItems = schema.putArray("prefixItems");
+                for (TupleMemberTypeSymbol member : tupleType.members()) {
+                    JsonNode memberSchema = getSchema(member.typeDescriptor(), namedSchemas);
+                    if (memberSchema == null) {
+                        return null;
+                    }
+                    prefixItems.add(memberSchema);
+                }
+                schema.put("minItems", tupleType.members().size());
+                if (tupleType.restTypeDescriptor().isEmpty()) {
+                    schema.put("maxItems", tupleType.members().size());
+                    return schema;
+                }
+                JsonNode restSchema = getSchema(tupleType.restTypeDescriptor().get(), namedSchemas);
+                if (restSchema == null) {
+                    return null;
+                }
+                schema.set("items", restSchema);
+                return schema;
+            }
+            case RecordTypeSymbol recordType -> {
+                ObjectNode schema = createSchema("object");
+                ObjectNode properties = schema.putObject("properties");
+                ArrayNode required = Json.mapper().createArrayNode();
+                for (Map.Entry<String, RecordFieldSymbol> entry : recordType.fieldDescriptors().entrySet()) {
+                    RecordFieldSymbol field = entry.getValue();
+                    JsonNode fieldSchema = getSchema(field.typeDescriptor(), namedSchemas);
+                    if (fieldSchema == null) {
+                        return null;
+                    }
+                    String fieldName = unescape(entry.getKey());
+                    properties.set(fieldName, fieldSchema);
+                    if (!field.isOptional() && !field.hasDefaultValue()) {
+                        required.add(fieldName);
+                    }
+                }
+                if (!required.isEmpty()) {
+                    schema.set("required", required);
+                }
+                return schema;
+            }
+            case MapTypeSymbol mapType -> {
+                JsonNode constraintSchema = getSchema(mapType.typeParam(), namedSchemas);
+                if (constraintSchema == null) {
+                    return null;
+                }
+                ObjectNode schema = createSchema("object");
+                schema.set("additionalProperties", constraintSchema);
+                return schema;
+            }
+            case UnionTypeSymbol unionType -> {
+                return getSchema(unionType.memberTypeDescriptors(), namedSchemas);
+            }
+            case IntersectionTypeSymbol intersectionType -> {
+                return getSchema(intersectionType.effectiveTypeDescriptor(), namedSchemas);
+            }
+            case SingletonTypeSymbol singletonType -> {
+                try {
+                    ObjectNode schema = Json.mapper().createObjectNode();
+                    schema.set("const", Json.mapper().readTree(singletonType.signature()));
+                    return schema;
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+            }
+            default -> {
+                return getSimpleTypeSchema(type.typeKind());
+            }
+        }
+    }
+
+    /**
+     * Writes the source of the union of the given types.
+     *
+     * @param memberTypes   the member types of the union
+     * @param referenceName returns the name of a type definition as it can be referred to
+     * @return the source of the union, or {@code null} if it cannot be written
+     */
+    static String getSource(List<TypeSymbol> memberTypes, Function<TypeReferenceTypeSymbol, String> referenceName) {
+        return joinSources(memberTypes, "|", referenceName);
+    }
+
+    /**
+     * Builds the JSON schema of the union of the given types. A union of a single type has the schema of the type.
+     *
+     * @param memberTypes  the member types of the union
+     * @param namedSchemas returns the schema generated for a type definition
+     * @return the schema, or {@code null} if the schema cannot be built
+     */
+    static JsonNode getSchema(List<TypeSymbol> memberTypes, Function<String, String> namedSchemas) {
+        if (memberTypes.size() == 1) {
+            return getSchema(memberTypes.get(0), namedSchemas);
+        }
+        ObjectNode schema = Json.mapper().createObjectNode();
+        ArrayNode anyOf = schema.putArray("anyOf");
+        for (TypeSymbol memberType : memberTypes) {
+            JsonNode memberSchema = getSchema(memberType, namedSchemas);
+            if (memberSchema == null) {
+                return null;
+            }
+            anyOf.add(memberSchema);
+        }
+        return schema;
+    }
+
+    private static ObjectNode createSchema(String type) {
+        ObjectNode schema = Json.mapper().createObjectNode();
+        schema.put(TYPE, type);
+        return schema;
+    }
+
+    // Matches the schemas of the basic types generated at runtime.
+    private static JsonNode getSimpleTypeSchema(TypeDescKind typeKind) {
+        if (typeKind == TypeDescKind.JSON || typeKind == TypeDescKind.ANYDATA) {
+            ObjectNode schema = Json.mapper().createObjectNode();
+            schema.putArray(TYPE).add("object").add("array").add("string").add("number").add("boolean").add("null");
+            return schema;
+        }
+        String typeName = getSimpleTypeName(typeKind);
+        return typeName == null ? null : createSchema(typeName);
+    }
+
+    private static String getSimpleTypeName(TypeDescKind typeKind) {
+        return switch (typeKind) {
+            case NIL -> "null";
+            case BOOLEAN -> "boolean";
+            case INT, BYTE, INT_SIGNED8, INT_SIGNED16, INT_SIGNED32, INT_UNSIGNED8, INT_UNSIGNED16,
+                 INT_UNSIGNED32 -> "integer";
+            case FLOAT, DECIMAL -> "number";
+            case STRING, STRING_CHAR -> "string";
+            default -> null;
+        };
+    }
+
+    private static String joinSources(List<TypeSymbol> types, String separator,
+                                      Function<TypeReferenceTypeSymbol, String> referenceName) {
+        List<String> sources = new ArrayList<>();
+        for (TypeSymbol type : types) {
+            String source = getSource(type, referenceName);
+            if (source == null) {
+                return null;
+            }
+            sources.add(isCompound(type) ? "(" + source + ")" : source);
+        }
+        return String.join(separator, sources);
+    }
+
+    private static boolean isCompound(TypeSymbol type) {
+        return type instanceof UnionTypeSymbol || type instanceof IntersectionTypeSymbol;
+    }
+
+    private static String getFieldName(String name) {
+        return SyntaxInfo.isKeyword(name) ? "'" + name : name;
+    }
+
+    private static String unescape(String name) {
+        return name.startsWith("'") ? name.substring(1) : name;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.projects.Project;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Schemas generated in earlier builds of a project, keyed by the fingerprint of the type that they were
+ * generated for. The cache is kept in the target directory of the project and is only used when the
+ * {@code AI_OLLAMA_SCHEMA_CACHE} environment variable is set to {@code true}.
+ *
+ * @since 1.2.4
+ */
+final class SchemaBuildCache {
+    private static final String ENABLING_VARIABLE = "AI_OLLAMA_SCHEMA_CACHE";
+    private static final String CACHE_DIRECTORY = "cache";
+    private static final String CACHE_FILE = "ai.ollama-schemas.properties";
+
+    private final Path file;
+    private final Properties previousSchemas = new Properties();
+    private final Properties schemas = new Properties();
+
+    private SchemaBuildCache(Path file) {
+        this.file = file;
+    }
+
+    static SchemaBuildCache load(Project project) {
+        return load(project.targetDir(), Boolean.parseBoolean(System.getenv(ENABLING_VARIABLE)));
+    }
+
+    static SchemaBuildCache load(Path targetDir, boolean enabled) {
+        if (!enabled) {
+            return new SchemaBuildCache(null);
+        }
+        SchemaBuildCache cache = new SchemaBuildCache(targetDir.resolve(CACHE_DIRECTORY).resolve(CACHE_FILE));
+        if (Files.isRegularFile(cache.file)) {
+            try (InputStream in = Files.newInputStream(cache.file)) {
+                cache.previousSchemas.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // A cache that cannot be read is discarded, and the schemas are generated again.
+                cache.previousSchemas.clear();
+            }
+        }
+        return cache;
+    }
+
+    boolean isEnabled() {
+        return this.file != null;
+    }
+
+    String get(String fingerprint) {
+        String schema = this.previousSchemas.getProperty(fingerprint);
+        if (schema != null) {
+            this.schemas.setProperty(fingerprint, schema);
+        }
+        return schema;
+    }
+
+    void put(String fingerprint, String schema) {
+        this.schemas.setProperty(fingerprint, schema);
+    }
+
+    // Only the schemas used in this build are kept, so the schemas of types that changed are dropped.
+    // Failing to write the cache does not fail the build, as the schemas were already generated.
+    void save() {
+        if (this.file == null || this.schemas.equals(this.previousSchemas)) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.file.getParent());
+            Path tempFile = Files.createTempFile(this.file.getParent(), CACHE_FILE, null);
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                this.schemas.store(out, null);
+            }
+            Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The schemas are generated again in the next build.
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.compiler.api.symbols.ArrayTypeSymbol;
+import io.ballerina.compiler.api.symbols.IntersectionTypeSymbol;
+import io.ballerina.compiler.api.symbols.MapTypeSymbol;
+import io.ballerina.compiler.api.symbols.RecordTypeSymbol;
+import io.ballerina.compiler.api.symbols.TableTypeSymbol;
+import io.ballerina.compiler.api.symbols.TupleTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeReferenceTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeSymbol;
+import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Computes a fingerprint of a type definition that changes whenever the schema generated for it could change.
+ * The fingerprint covers the source of the type definition, including its documentation and annotations, and
+ * that of every type definition it refers to, directly or indirectly.
+ *
+ * @since 1.2.4
+ */
+final class TypeFingerprint {
+    // Changed whenever the schema generation changes, so that schemas cached by earlier versions are not used.
+    private static final String SCHEMA_FORMAT_VERSION = "1";
+
+    private final Function<TypeReferenceTypeSymbol, String> definitionSource;
+    private final StringBuilder description = new StringBuilder(SCHEMA_FORMAT_VERSION);
+    private final Set<String> visitedDefinitions = new HashSet<>();
+
+    private TypeFingerprint(Function<TypeReferenceTypeSymbol, String> definitionSource) {
+        this.definitionSource = definitionSource;
+    }
+
+    /**
+     * Returns the fingerprint of a type definition.
+     *
+     * @param typeReference    reference to the type definition
+     * @param definitionSource returns the source of a type definition, or a stable identifier of it for
+     *                         definitions that are not part of the current package
+     * @return the fingerprint as a hexadecimal string
+     */
+    static String of(TypeReferenceTypeSymbol typeReference,
+                     Function<TypeReferenceTypeSymbol, String> definitionSource) {
+        TypeFingerprint fingerprint = new TypeFingerprint(definitionSource);
+        fingerprint.describe(typeReference);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(fingerprint.description.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void describe(TypeSymbol type) {
+        switch (type) {
+            case TypeReferenceTypeSymbol typeReference -> {
+                String signature = typeReference.signature();
+                this.description.append('\n').append(signature);
+                if (this.visitedDefinitions.add(signature)) {
+                    this.description.append('\n').append(this.definitionSource.apply(typeReference));
+                    describe(typeReference.typeDescriptor());
+                }
+            }
+            case RecordTypeSymbol recordType -> {
+                // The fields of an included record are copied into the record, but the documentation and
+                // annotations of the fields are only found in the definition of the included record.
+                recordType.typeInclusions().forEach(this::describe);
+                recordType.fieldDescriptors().values().forEach(field -> describe(field.typeDescriptor()));
+                recordType.restTypeDescriptor().ifPresent(this::describe);
+            }
+            case ArrayTypeSymbol arrayType -> describe(arrayType.memberTypeDescriptor());
+            case TupleTypeSymbol tupleType -> {
+                tupleType.members().forEach(member -> describe(member.typeDescriptor()));
+                tupleType.restTypeDescriptor().ifPresent(this::describe);
+            }
+            // The members as written keep the references to the definitions of the member types, which the
+            // flattened members do not.
+            case UnionTypeSymbol unionType -> unionType.userSpecifiedMemberTypes().forEach(this::describe);
+            case IntersectionTypeSymbol intersectionType ->
+                    intersectionType.memberTypeDescriptors().forEach(this::describe);
+            case MapTypeSymbol mapType -> describe(mapType.typeParam());
+            case TableTypeSymbol tableType -> describe(tableType.rowTypeParameter());
+            default -> { }
+        }
+    }
+}
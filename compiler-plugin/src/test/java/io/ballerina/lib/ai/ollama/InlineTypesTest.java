@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.compiler.api.symbols.Qualifier;
+import io.ballerina.compiler.api.symbols.RecordFieldSymbol;
+import io.ballerina.compiler.api.symbols.RecordTypeSymbol;
+import io.ballerina.compiler.api.symbols.TupleMemberTypeSymbol;
+import io.ballerina.compiler.api.symbols.TupleTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeDescKind;
+import io.ballerina.compiler.api.symbols.TypeSymbol;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tests the source and the schema written for expected types that are not type definitions, using symbols that
+ * only answer the methods used to write them.
+ */
+public class InlineTypesTest {
+
+    @Test
+    public void testReadonlyFieldIsKept() {
+        Map<String, RecordFieldSymbol> fields = new LinkedHashMap<>();
+        fields.put("id", field(basicType(TypeDescKind.STRING, "string"), List.of(Qualifier.READONLY)));
+        fields.put("rating", field(basicType(TypeDescKind.INT, "int"), List.of()));
+        RecordTypeSymbol recordType = fake(RecordTypeSymbol.class,
+                Map.of("fieldDescriptors", fields, "restTypeDescriptor", Optional.empty()));
+
+        Assert.assertEquals(InlineTypes.getSource(recordType, reference -> null),
+                "record {| readonly string id; int rating; |}");
+    }
+
+    @Test
+    public void testTupleSchema() {
+        TupleTypeSymbol tupleType = fake(TupleTypeSymbol.class, Map.of(
+                "members", List.of(tupleMember(basicType(TypeDescKind.STRING, "string")),
+                        tupleMember(basicType(TypeDescKind.INT, "int"))),
+                "restTypeDescriptor", Optional.empty()));
+
+        Assert.assertEquals(InlineTypes.getSchema(tupleType, name -> null).toString(),
+                "{\"type\":\"array\",\"prefixItems\":[{\"type\":\"string\"},{\"type\":\"integer\"}],"
+                        + "\"minItems\":2,\"maxItems\":2}");
+    }
+
+    private static RecordFieldSymbol field(TypeSymbol type, List<Qualifier> qualifiers) {
+        return fake(RecordFieldSymbol.class, Map.of("typeDescriptor", type, "qualifiers", qualifiers,
+                "isOptional", false, "hasDefaultValue", false));
+    }
+
+    private static TupleMemberTypeSymbol tupleMember(TypeSymbol type) {
+        return fake(TupleMemberTypeSymbol.class, Map.of("typeDescriptor", type));
+    }
+
+    private static TypeSymbol basicType(TypeDescKind kind, String signature) {
+        return fake(TypeSymbol.class, Map.of("typeKind", kind, "signature", signature));
+    }
+
+    private static <T> T fake(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> {
+                        if (!answers.containsKey(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        yield answers.get(method.getName());
+                    }
+                }));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Tests the schemas kept between builds.
+ */
+public class SchemaBuildCacheTest {
+    private static final String REVIEW_SCHEMA = "{\"type\":\"object\"}";
+    private static final String SENTIMENT_SCHEMA = "{\"type\":\"string\"}";
+
+    private Path targetDir;
+
+    @BeforeMethod
+    public void createTargetDir() throws IOException {
+        this.targetDir = Files.createTempDirectory("ai.ollama-target");
+    }
+
+    @AfterMethod
+    public void deleteTargetDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.targetDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testSchemaOfUnchangedTypeIsReused() {
+        SchemaBuildCache firstBuild = SchemaBuildCache.load(this.targetDir, true);
+        Assert.assertNull(firstBuild.get("review"));
+        firstBuild.put("review", REVIEW_SCHEMA);
+        firstBuild.save();
+
+        SchemaBuildCache secondBuild = SchemaBuildCache.load(this.targetDir, true);
+        Assert.assertEquals(secondBuild.get("review"), REVIEW_SCHEMA);
+        secondBuild.save();
+
+        Assert.assertEquals(SchemaBuildCache.load(this.targetDir, true).get("review"), REVIEW_SCHEMA);
+    }
+
+    @Test
+    public void testSchemaOfChangedTypeIsDropped() {
+        SchemaBuildCache firstBuild = SchemaBuildCache.load(this.targetDir, true);
+        firstBuild.put("review", REVIEW_SCHEMA);
+        firstBuild.save();
+
+        // The type changed, so its fingerprint did too, and the schema is generated again under the new one.
+        SchemaBuildCache secondBuild = SchemaBuildCache.load(this.targetDir, true);
+        Assert.assertNull(secondBuild.get("changedReview"));
+        secondBuild.put("changedReview", SENTIMENT_SCHEMA);
+        secondBuild.save();
+
+        SchemaBuildCache thirdBuild = SchemaBuildCache.load(this.targetDir, true);
+        Assert.assertNull(thirdBuild.get("review"));
+        Assert.assertEquals(thirdBuild.get("changedReview"), SENTIMENT_SCHEMA);
+    }
+
+    @Test
+    public void testDisabledCacheIsNotWritten() throws IOException {
+        SchemaBuildCache cache = SchemaBuildCache.load(this.targetDir, false);
+        Assert.assertFalse(cache.isEnabled());
+        cache.put("review", REVIEW_SCHEMA);
+        cache.save();
+
+        try (Stream<Path> paths = Files.list(this.targetDir)) {
+            Assert.assertEquals(paths.count(), 0L);
+        }
+        Assert.assertNull(SchemaBuildCache.load(this.targetDir, true).get("review"));
+    }
+}
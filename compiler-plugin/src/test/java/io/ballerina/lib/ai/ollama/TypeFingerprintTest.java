@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.compiler.api.symbols.RecordFieldSymbol;
+import io.ballerina.compiler.api.symbols.RecordTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeReferenceTypeSymbol;
+import io.ballerina.compiler.api.symbols.TypeSymbol;
+import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tests the fingerprints of type definitions, using symbols that only answer the methods the fingerprint uses.
+ */
+public class TypeFingerprintTest {
+
+    @Test
+    public void testSameDefinitionsHaveSameFingerprint() {
+        Map<String, String> sources = new HashMap<>(Map.of(
+                "test:Base", "type Base record {| string id; |};",
+                "test:Review", "type Review record {| *Base; int rating; |};"));
+        Assert.assertEquals(TypeFingerprint.of(review(), reference -> sources.get(reference.signature())),
+                TypeFingerprint.of(review(), reference -> sources.get(reference.signature())));
+    }
+
+    @Test
+    public void testIncludedRecordChangesFingerprint() {
+        Map<String, String> sources = new HashMap<>(Map.of(
+                "test:Base", "type Base record {| string id; |};",
+                "test:Review", "type Review record {| *Base; int rating; |};"));
+        String fingerprint = TypeFingerprint.of(review(), reference -> sources.get(reference.signature()));
+
+        sources.put("test:Base", "type Base record {| # The id of the review\n string id; |};");
+        Assert.assertNotEquals(TypeFingerprint.of(review(), reference -> sources.get(reference.signature())),
+                fingerprint);
+    }
+
+    @Test
+    public void testReferencedUnionMemberChangesFingerprint() {
+        Map<String, String> sources = new HashMap<>(Map.of(
+                "test:Positive", "type Positive record {| string summary; |};",
+                "test:Negative", "type Negative record {| string complaint; |};",
+                "test:Sentiment", "type Sentiment Positive|Negative;"));
+        String fingerprint = TypeFingerprint.of(sentiment(), reference -> sources.get(reference.signature()));
+
+        sources.put("test:Negative", "type Negative record {| @constraint:String {minLength: 1} "
+                + "string complaint; |};");
+        Assert.assertNotEquals(TypeFingerprint.of(sentiment(), reference -> sources.get(reference.signature())),
+                fingerprint);
+    }
+
+    private static TypeReferenceTypeSymbol review() {
+        TypeReferenceTypeSymbol base = reference("test:Base", record(List.of(), Map.of("id", anonymousType())));
+        return reference("test:Review",
+                record(List.of(base), Map.of("id", anonymousType(), "rating", anonymousType())));
+    }
+
+    private static TypeReferenceTypeSymbol sentiment() {
+        TypeReferenceTypeSymbol positive = reference("test:Positive", record(List.of(), Map.of()));
+        TypeReferenceTypeSymbol negative = reference("test:Negative", record(List.of(), Map.of()));
+        return reference("test:Sentiment", fake(UnionTypeSymbol.class,
+                Map.of("userSpecifiedMemberTypes", List.of(positive, negative))));
+    }
+
+    private static TypeReferenceTypeSymbol reference(String signature, TypeSymbol typeDescriptor) {
+        return fake(TypeReferenceTypeSymbol.class, Map.of("signature", signature, "typeDescriptor", typeDescriptor));
+    }
+
+    private static RecordTypeSymbol record(List<TypeSymbol> inclusions, Map<String, TypeSymbol> fields) {
+        Map<String, RecordFieldSymbol> fieldDescriptors = new LinkedHashMap<>();
+        fields.forEach((name, type) -> fieldDescriptors.put(name,
+                fake(RecordFieldSymbol.class, Map.of("typeDescriptor", type))));
+        return fake(RecordTypeSymbol.class, Map.of("typeInclusions", inclusions,
+                "fieldDescriptors", fieldDescriptors, "restTypeDescriptor", Optional.empty()));
+    }
+
+    // A type that the fingerprint does not look into, such as a basic type.
+    private static TypeSymbol anonymousType() {
+        return fake(TypeSymbol.class, Map.of());
+    }
+
+    private static <T> T fake(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> {
+                        if (!answers.containsKey(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        yield answers.get(method.getName());
+                    }
+                }));
+    }
+}
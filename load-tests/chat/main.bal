@@ -0,0 +1,189 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/ai;
+import ballerina/http;
+import ballerina/io;
+import ballerina/random;
+import ballerina/time;
+import ballerinax/ai.ollama;
+
+# Number of requests sent concurrently
+configurable int concurrency = 8;
+# Number of requests measured
+configurable int requestCount = 400;
+# Number of requests sent before the measured ones, to warm up the connections and the runtime
+configurable int warmUpRequestCount = 20;
+# Relative share of `chat` requests
+configurable float chatWeight = 1.0;
+# Relative share of `chatStream` requests
+configurable float chatStreamWeight = 0.0;
+# Relative share of `generate` requests
+configurable float generateWeight = 1.0;
+# HTTP version used by the client
+configurable http:HttpVersion httpVersion = http:HTTP_2_0;
+# Maximum number of connections of the client, or -1 for no limit
+configurable int maxActiveConnections = -1;
+# Whether `generate` requests stream the response
+configurable boolean streamGenerate = false;
+# URL of an Ollama server to run against, instead of the stand-in server
+configurable string serviceUrl = "";
+# Model requested from the server
+configurable string modelType = STAND_IN_MODEL;
+# Port of the stand-in server
+configurable int standInPort = 11435;
+# File to which the report is written as JSON
+configurable string reportPath = "target/load-test-report.json";
+
+type Answer record {|
+    string answer;
+    int confidence;
+|};
+
+enum Operation {
+    CHAT = "chat",
+    CHAT_STREAM = "chatStream",
+    GENERATE = "generate"
+}
+
+public function main() returns error? {
+    if concurrency <= 0 || requestCount <= 0 || chatWeight + chatStreamWeight + generateWeight <= 0.0 {
+        return error("Concurrency, request count and the total weight of the operations must be positive");
+    }
+    http:Listener? standInServer = ();
+    string url = serviceUrl;
+    if url == "" {
+        http:Listener 'listener = check new (standInPort);
+        check 'listener.attach(createStandInService(), "/");
+        check 'listener.'start();
+        standInServer = 'listener;
+        url = string `http://localhost:${standInPort}`;
+    }
+
+    ollama:ModelProvider provider = check new (modelType, url, httpVersion = httpVersion,
+        poolConfig = {maxActiveConnections}, streamGenerate = streamGenerate);
+    _ = runLoad(provider, warmUpRequestCount);
+    LoadResult result = runLoad(provider, requestCount);
+
+    Report report = createReport(result);
+    printReport(report);
+    check io:fileWriteJson(reportPath, report.toJson());
+    if standInServer is http:Listener {
+        check standInServer.gracefulStop();
+    }
+}
+
+// Sends the given number of requests from `concurrency` workers, each sending its next request as soon as
+// the previous one completes.
+function runLoad(ollama:ModelProvider provider, int count) returns LoadResult {
+    RequestCounter counter = new (count);
+    LatencyRecorder recorder = new;
+    decimal startTime = time:monotonicNow();
+    future<()>[] workers = [];
+    foreach int _ in 0 ..< concurrency {
+        workers.push(start runWorker(provider, counter, recorder));
+    }
+    foreach future<()> worker in workers {
+        () _ = checkpanic wait worker;
+    }
+    return {duration: time:monotonicNow() - startTime, samples: recorder.getSamples()};
+}
+
+isolated function runWorker(ollama:ModelProvider provider, RequestCounter counter, LatencyRecorder recorder) {
+    int? requestIndex = counter.next();
+    while requestIndex is int {
+        Operation operation = pickOperation();
+        decimal startTime = time:monotonicNow();
+        decimal|error? timeToFirstToken = sendRequest(provider, operation, requestIndex, startTime);
+        decimal latency = time:monotonicNow() - startTime;
+        recorder.record({
+            operation,
+            latency,
+            timeToFirstToken: timeToFirstToken is decimal ? timeToFirstToken : (),
+            failed: timeToFirstToken is error
+        });
+        requestIndex = counter.next();
+    }
+}
+
+// Returns the time to the first delta for streamed chat requests.
+isolated function sendRequest(ollama:ModelProvider provider, Operation operation, int requestIndex,
+        decimal startTime) returns decimal|error? {
+    ai:ChatUserMessage message = {role: ai:USER, content: string `Load test request ${requestIndex}`};
+    match operation {
+        CHAT => {
+            _ = check provider->chat(message);
+        }
+        GENERATE => {
+            Answer _ = check provider->generate(`Answer load test question ${requestIndex}`);
+        }
+        CHAT_STREAM => {
+            stream<ai:ChatAssistantMessage, ai:Error?> deltas = check provider->chatStream(message);
+            decimal? timeToFirstToken = ();
+            check from ai:ChatAssistantMessage _ in deltas
+                do {
+                    if timeToFirstToken is () {
+                        timeToFirstToken = time:monotonicNow() - startTime;
+                    }
+                };
+            return timeToFirstToken;
+        }
+    }
+    return;
+}
+
+isolated function pickOperation() returns Operation {
+    float choice = random:createDecimal() * (chatWeight + chatStreamWeight + generateWeight);
+    if choice < chatWeight {
+        return CHAT;
+    }
+    return choice < chatWeight + chatStreamWeight ? CHAT_STREAM : GENERATE;
+}
+
+isolated class RequestCounter {
+    private final int count;
+    private int sent = 0;
+
+    isolated function init(int count) {
+        self.count = count;
+    }
+
+    isolated function next() returns int? {
+        lock {
+            if self.sent >= self.count {
+                return;
+            }
+            self.sent += 1;
+            return self.sent;
+        }
+    }
+}
+
+isolated class LatencyRecorder {
+    private Sample[] samples = [];
+
+    isolated function record(Sample sample) {
+        lock {
+            self.samples.push(sample.clone());
+        }
+    }
+
+    isolated function getSamples() returns Sample[] {
+        lock {
+            return self.samples.clone();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+
+// Upper bounds of the latency histogram buckets, in milliseconds.
+final readonly & decimal[] HISTOGRAM_BOUNDS = [1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000];
+final readonly & decimal[] PERCENTILES = [50, 75, 90, 95, 99, 99.9];
+
+type Sample record {|
+    Operation operation;
+    decimal latency;
+    decimal? timeToFirstToken;
+    boolean failed;
+|};
+
+type LoadResult record {|
+    decimal duration;
+    Sample[] samples;
+|};
+
+# Distribution of the latencies of a set of requests, in milliseconds.
+type LatencyDistribution record {|
+    int count;
+    decimal min;
+    decimal mean;
+    decimal max;
+    # Latency at each percentile, keyed by the percentile
+    map<decimal> percentiles;
+    # Number of latencies in each bucket, keyed by the upper bound of the bucket
+    map<int> histogram;
+|};
+
+type OperationReport record {|
+    int requests;
+    int errors;
+    LatencyDistribution latency;
+    LatencyDistribution? timeToFirstToken;
+|};
+
+type Report record {|
+    map<anydata> config;
+    int requests;
+    int errors;
+    # Duration of the measured run, in seconds
+    decimal duration;
+    # Completed requests per second
+    decimal throughput;
+    LatencyDistribution latency;
+    map<OperationReport> operations;
+|};
+
+function createReport(LoadResult result) returns Report {
+    Sample[] samples = result.samples;
+    map<OperationReport> operations = {};
+    foreach Operation operation in [CHAT, CHAT_STREAM, GENERATE] {
+        Sample[] operationSamples = samples.filter(sample => sample.operation == operation);
+        if operationSamples.length() == 0 {
+            continue;
+        }
+        decimal[] timesToFirstToken = from Sample sample in operationSamples
+            let decimal? timeToFirstToken = sample.timeToFirstToken
+            where timeToFirstToken is decimal
+            select timeToFirstToken;
+        operations[operation] = {
+            requests: operationSamples.length(),
+            errors: countErrors(operationSamples),
+            latency: getDistribution(operationSamples.'map(sample => sample.latency)),
+            timeToFirstToken: timesToFirstToken.length() > 0 ? getDistribution(timesToFirstToken) : ()
+        };
+    }
+    return {
+        config: {
+            concurrency,
+            requestCount,
+            chatWeight,
+            chatStreamWeight,
+            generateWeight,
+            httpVersion,
+            maxActiveConnections,
+            streamGenerate,
+            server: serviceUrl == "" ? {firstTokenLatency, tokenLatency, promptTokenCount, responseTokenCount,
+                    toolCallRatio} : serviceUrl
+        },
+        requests: samples.length(),
+        errors: countErrors(samples),
+        duration: result.duration,
+        throughput: result.duration > 0d ? <decimal>samples.length() / result.duration : 0,
+        latency: getDistribution(samples.'map(sample => sample.latency)),
+        operations
+    };
+}
+
+function countErrors(Sample[] samples) returns int => samples.filter(sample => sample.failed).length();
+
+// Latencies are given in seconds and reported in milliseconds.
+function getDistribution(decimal[] latencies) returns LatencyDistribution {
+    decimal[] sorted = latencies.'map(latency => latency * 1000).sort();
+    int count = sorted.length();
+    map<decimal> percentiles = {};
+    foreach decimal percentile in PERCENTILES {
+        // Nearest-rank percentile.
+        int rank = <int>decimal:ceiling(percentile / 100 * <decimal>count);
+        percentiles[percentile.toString()] = sorted[int:max(rank, 1) - 1];
+    }
+    map<int> histogram = {};
+    int bucketStart = 0;
+    foreach decimal bound in HISTOGRAM_BOUNDS {
+        int bucketEnd = bucketStart;
+        while bucketEnd < count && sorted[bucketEnd] <= bound {
+            bucketEnd += 1;
+        }
+        histogram[bound.toString()] = bucketEnd - bucketStart;
+        bucketStart = bucketEnd;
+    }
+    histogram["+Inf"] = count - bucketStart;
+    return {
+        count,
+        min: sorted[0],
+        mean: decimal:sum(...sorted) / <decimal>count,
+        max: sorted[count - 1],
+        percentiles,
+        histogram
+    };
+}
+
+function printReport(Report report) {
+    io:println(string `Requests: ${report.requests}, errors: ${report.errors}, duration: ${
+        report.duration.round(3)}s, throughput: ${report.throughput.round(2)} requests/s`);
+    printDistribution("all", report.latency);
+    foreach [string, OperationReport] [operation, operationReport] in report.operations.entries() {
+        printDistribution(string `${operation} (${operationReport.requests} requests, ${
+            operationReport.errors} errors)`, operationReport.latency);
+        LatencyDistribution? timeToFirstToken = operationReport.timeToFirstToken;
+        if timeToFirstToken is LatencyDistribution {
+            printDistribution(string `${operation} time to first token`, timeToFirstToken);
+        }
+    }
+}
+
+function printDistribution(string label, LatencyDistribution distribution) {
+    string[] percentiles = from [string, decimal] [percentile, latency] in distribution.percentiles.entries()
+        select string `p${percentile}=${latency.round(2)}ms`;
+    io:println(string `${label}: min=${distribution.min.round(2)}ms, mean=${distribution.mean.round(2)}ms, ${
+        string:'join(", ", ...percentiles)}, max=${distribution.max.round(2)}ms`);
+}
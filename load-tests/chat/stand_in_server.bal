@@ -0,0 +1,140 @@
+// Copyright (c) 2025 WSO2 LLC (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/io;
+import ballerina/lang.runtime;
+import ballerina/random;
+
+# Time the stand-in server takes to produce the first token of a response, in seconds
+configurable decimal firstTokenLatency = 0.05;
+# Time the stand-in server takes to produce each subsequent token, in seconds
+configurable decimal tokenLatency = 0.002;
+# Prompt token count reported for each request
+configurable int promptTokenCount = 200;
+# Number of tokens generated for each response
+configurable int responseTokenCount = 50;
+# Fraction of the structured requests answered with a `getResults` tool call instead of text
+configurable float toolCallRatio = 0.8;
+
+const decimal NANOS_PER_SECOND = 1000000000;
+const STAND_IN_MODEL = "stand-in";
+const NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+final readonly & Answer STAND_IN_ANSWER = {answer: "The stand-in server always answers the same", confidence: 7};
+
+type ChatRequest record {
+    boolean 'stream = false;
+    json[] tools?;
+};
+
+// A frame of a streamed response, written once its delay has elapsed.
+type DelayedFrame record {|
+    decimal delay;
+    byte[] frame;
+|};
+
+// Stands in for the Ollama chat API. Requests with tools are treated as structured requests and are answered
+// either with a `getResults` tool call or with the value as text, as smaller models tend to do. Responses take
+// as long as generating their tokens would at the configured latencies, and are streamed frame by frame when
+// the request enables streaming.
+function createStandInService() returns http:Service => service object {
+    resource function post api/chat(ChatRequest request) returns http:Response {
+        map<json> message = createMessage(request.tools is json[]);
+        http:Response response = new;
+        if !request.'stream {
+            runtime:sleep(firstTokenLatency + tokenLatency * <decimal>(responseTokenCount - 1));
+            response.setJsonPayload({model: STAND_IN_MODEL, message, ...getTimings()});
+            return response;
+        }
+        DelayedFrame[] frames = message.hasKey("tool_calls")
+            ? [{delay: firstTokenLatency + tokenLatency * <decimal>(responseTokenCount - 1),
+                frame: createFrame({model: STAND_IN_MODEL, message, done: false})}]
+            : getContentFrames(<string>message["content"]);
+        frames.push({delay: 0, frame: createFrame({
+            model: STAND_IN_MODEL,
+            message: {role: "assistant", content: ""},
+            ...getTimings()
+        })});
+        response.setByteStream(new stream<byte[], io:Error?>(new FrameStream(frames)), NDJSON_MEDIA_TYPE);
+        return response;
+    }
+
+    resource function get api/version() returns json => {version: STAND_IN_MODEL};
+};
+
+function createMessage(boolean structured) returns map<json> {
+    if !structured {
+        return {role: "assistant", content: string:'join("", ...getTokens())};
+    }
+    if random:createDecimal() < toolCallRatio {
+        return {
+            role: "assistant",
+            content: "",
+            tool_calls: [{'function: {name: "getResults", arguments: STAND_IN_ANSWER}}]
+        };
+    }
+    return {role: "assistant", content: string `${"```"}json${"\n"}${STAND_IN_ANSWER.toJsonString()}${"\n"}${"```"}`};
+}
+
+function getContentFrames(string content) returns DelayedFrame[] {
+    // Text is streamed as one frame per token, with the structured text fallback as a single token.
+    string[] tokens = content.startsWith("```") ? [content] : getTokens();
+    return from int i in 0 ..< tokens.length()
+        select {
+            delay: i == 0 ? firstTokenLatency : tokenLatency,
+            frame: createFrame({model: STAND_IN_MODEL, message: {role: "assistant", content: tokens[i]}, done: false})
+        };
+}
+
+function getTokens() returns string[] => from int i in 0 ..< responseTokenCount select string `token${i} `;
+
+function getTimings() returns map<json> {
+    decimal evalDuration = tokenLatency * <decimal>responseTokenCount;
+    return {
+        done: true,
+        done_reason: "stop",
+        prompt_eval_count: promptTokenCount,
+        eval_count: responseTokenCount,
+        total_duration: toNanos(firstTokenLatency + evalDuration),
+        load_duration: 0,
+        prompt_eval_duration: toNanos(firstTokenLatency),
+        eval_duration: toNanos(evalDuration)
+    };
+}
+
+function createFrame(map<json> frame) returns byte[] => string `${frame.toJsonString()}${"\n"}`.toBytes();
+
+function toNanos(decimal seconds) returns int => <int>(seconds * NANOS_PER_SECOND);
+
+class FrameStream {
+    private final DelayedFrame[] frames;
+    private int index = 0;
+
+    function init(DelayedFrame[] frames) {
+        self.frames = frames;
+    }
+
+    public isolated function next() returns record {|byte[] value;|}? {
+        if self.index >= self.frames.length() {
+            return;
+        }
+        DelayedFrame frame = self.frames[self.index];
+        self.index += 1;
+        runtime:sleep(frame.delay);
+        return {value: frame.frame};
+    }
+}
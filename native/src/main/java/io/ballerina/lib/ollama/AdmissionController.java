@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.creators.ErrorCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BHandle;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client-side admission control for the requests sent to the model. The number of concurrent requests is bounded by
+ * a limit that is adapted with additive increase and multiplicative decrease (AIMD). The limit decreases when a
+ * request signals overload, or when the latency per token of a request exceeds the tolerated multiple of the
+ * baseline latency, and otherwise increases while the limit is being reached. Requests beyond the limit wait in
+ * a bounded queue for a bounded time, and interactive requests are admitted before batch requests.
+ *
+ * @since 1.2.4
+ */
+public final class AdmissionController {
+    private static final long INTERACTIVE = 0;
+    private static final double BACKOFF_RATIO = 0.9;
+    // Inverse of the weight of a latency sample that is above the baseline, so that the baseline slowly follows
+    // lasting changes in latency.
+    private static final long BASELINE_DRIFT = 64;
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final int maxQueueSize;
+    private final long maxQueueWaitNanos;
+    private final double latencyTolerance;
+    private final ArrayDeque<Waiter> interactiveQueue = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> batchQueue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight = 0;
+    private double baselineLatency = 0;
+    private long rejected = 0;
+    private long timedOut = 0;
+
+    private AdmissionController(long initialLimit, long minLimit, long maxLimit, long maxQueueSize,
+                                long maxQueueWaitNanos, double latencyTolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = (int) Math.min(maxQueueSize, Integer.MAX_VALUE);
+        this.maxQueueWaitNanos = maxQueueWaitNanos;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public static Object createAdmissionController(long initialLimit, long minLimit, long maxLimit,
+                                                   long maxQueueSize, long maxQueueWaitNanos,
+                                                   double latencyTolerance) {
+        return ValueCreator.createHandleValue(new AdmissionController(initialLimit, minLimit, maxLimit, maxQueueSize,
+                maxQueueWaitNanos, latencyTolerance));
+    }
+
+    /**
+     * Admits a request, waiting in the queue of its priority if the limit has been reached. Returns an error if
+     * the queue is full, or if the request was not admitted within the maximum queue wait.
+     */
+    public static Object admitRequest(Environment env, BHandle controller, long priority) {
+        return ((AdmissionController) controller.getValue()).admit(env, priority == INTERACTIVE);
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit. The latency per token is only used when the token count
+     * of the response is known.
+     */
+    public static void releaseRequest(BHandle controller, long latencyNanos, long tokenCount, boolean overloaded) {
+        ((AdmissionController) controller.getValue()).release(latencyNanos, tokenCount, overloaded);
+    }
+
+    public static BArray getAdmissionControllerStats(BHandle controller) {
+        return ((AdmissionController) controller.getValue()).getStats();
+    }
+
+    private Object admit(Environment env, boolean interactive) {
+        Waiter waiter = new Waiter();
+        synchronized (this) {
+            // Batch requests also give way to the batch requests that are already waiting, so that they are
+            // admitted in order.
+            boolean queueEmpty = interactive ? this.interactiveQueue.isEmpty()
+                    : this.interactiveQueue.isEmpty() && this.batchQueue.isEmpty();
+            if (queueEmpty && this.inFlight < (int) this.limit) {
+                this.inFlight++;
+                return null;
+            }
+            if (this.interactiveQueue.size() + this.batchQueue.size() >= this.maxQueueSize) {
+                this.rejected++;
+                return createError("Request rejected as the admission queue is full");
+            }
+            (interactive ? this.interactiveQueue : this.batchQueue).add(waiter);
+        }
+
+        boolean admitted = env.yieldAndRun(() -> waiter.await(this.maxQueueWaitNanos));
+        if (admitted) {
+            return null;
+        }
+        synchronized (this) {
+            // The request may have been admitted just as the wait timed out.
+            if (waiter.admitted) {
+                return null;
+            }
+            (interactive ? this.interactiveQueue : this.batchQueue).remove(waiter);
+            this.timedOut++;
+        }
+        return createError("Request rejected as it was not admitted within the maximum queue wait");
+    }
+
+    private synchronized void release(long latencyNanos, long tokenCount, boolean overloaded) {
+        boolean limitReached = this.inFlight >= (int) this.limit;
+        this.inFlight--;
+        if (overloaded) {
+            decrease();
+        } else if (tokenCount > 0) {
+            double latency = (double) latencyNanos / tokenCount;
+            if (this.baselineLatency == 0 || latency < this.baselineLatency) {
+                this.baselineLatency = latency;
+            } else {
+                this.baselineLatency += (latency - this.baselineLatency) / BASELINE_DRIFT;
+            }
+            if (latency > this.latencyTolerance * this.baselineLatency) {
+                decrease();
+            } else if (limitReached) {
+                this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+            }
+        } else if (limitReached) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+        }
+
+        while (this.inFlight < (int) this.limit) {
+            Waiter waiter = this.interactiveQueue.poll();
+            if (waiter == null) {
+                waiter = this.batchQueue.poll();
+            }
+            if (waiter == null) {
+                break;
+            }
+            this.inFlight++;
+            waiter.admit();
+        }
+    }
+
+    private void decrease() {
+        this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+    }
+
+    private synchronized BArray getStats() {
+        return ValueCreator.createArrayValue(new long[]{(long) this.limit, this.inFlight, this.interactiveQueue.size(),
+                this.batchQueue.size(), this.rejected, this.timedOut});
+    }
+
+    private static Object createError(String message) {
+        return ErrorCreator.createError(StringUtils.fromString(message));
+    }
+
+    private static final class Waiter {
+        private final CompletableFuture<Void> admission = new CompletableFuture<>();
+        // Guarded by the controller.
+        private boolean admitted = false;
+
+        private void admit() {
+            this.admitted = true;
+            this.admission.complete(null);
+        }
+
+        private boolean await(long timeoutNanos) {
+            try {
+                this.admission.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException | ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.creators.ErrorCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BHandle;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Queue of the indices of the batch items whose generation completed, in the order in which they completed. The
+ * batch waits for the next completed item, whichever it is, so that its request slot is refilled as soon as any
+ * item completes instead of in the order of the prompts.
+ *
+ * @since 1.2.4
+ */
+public final class BatchCompletions {
+    private final LinkedBlockingQueue<Long> completedIndices = new LinkedBlockingQueue<>();
+
+    private BatchCompletions() {
+    }
+
+    public static Object createBatchCompletions() {
+        return ValueCreator.createHandleValue(new BatchCompletions());
+    }
+
+    public static void completeBatchItem(BHandle completions, long index) {
+        ((BatchCompletions) completions.getValue()).completedIndices.add(index);
+    }
+
+    /**
+     * Waits for the next batch item to complete and returns its index. Every item in flight is expected to be
+     * completed with {@link #completeBatchItem}, so the wait is not bounded.
+     */
+    public static Object awaitBatchItem(Environment env, BHandle completions) {
+        BatchCompletions queue = (BatchCompletions) completions.getValue();
+        return env.yieldAndRun(() -> {
+            try {
+                return queue.completedIndices.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ErrorCreator.createError(StringUtils.fromString(
+                        "Interrupted while waiting for a batch item to complete"));
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.values.BArray;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content address of a byte sequence, made of the SHA-256 digest of the bytes together with their length. The
+ * digest is collision resistant, so a key identifies its content without the bytes being kept or compared, and a
+ * crafted request, payload or image cannot take the place of another one.
+ *
+ * @since 1.2.4
+ */
+record ContentKey(long digest1, long digest2, long digest3, long digest4, int length) {
+    // Serialized size of a key: the digest (4 longs) and the length.
+    static final int SIZE = 4 * Long.BYTES + Integer.BYTES;
+    private static final int SLICE_SIZE = 16 * 1024;
+
+    static ContentKey of(byte[] data) {
+        MessageDigest digest = newDigest();
+        digest.update(data);
+        return create(digest.digest(), data.length);
+    }
+
+    /**
+     * Digests the bytes of a Ballerina byte array a slice at a time, without copying the whole array out of it.
+     */
+    static ContentKey of(BArray data) {
+        MessageDigest digest = newDigest();
+        byte[] slice = new byte[Math.min(SLICE_SIZE, data.size())];
+        int offset = 0;
+        while (offset < data.size()) {
+            int length = RequestBodyWriter.readSlice(data, offset, slice);
+            digest.update(slice, 0, length);
+            offset += length;
+        }
+        return create(digest.digest(), data.size());
+    }
+
+    static ContentKey read(ByteBuffer buffer) {
+        return new ContentKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getInt());
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.putLong(this.digest1).putLong(this.digest2).putLong(this.digest3).putLong(this.digest4)
+                .putInt(this.length);
+    }
+
+    private static ContentKey create(byte[] digest, int length) {
+        return read(ByteBuffer.allocate(SIZE).put(digest).putInt(length).flip());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
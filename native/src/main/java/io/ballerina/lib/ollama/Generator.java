@@ -33,9 +33,11 @@ public class Generator {
                                   BObject prompt, BTypedesc expectedResponseTypedesc) {
         return env.getRuntime().callFunction(
                 new Module("ballerinax", "ai.ollama", "1"), "generateLlmResponse", null,
-                modelProvider.get(StringUtils.fromString("ollamaClient")),
+                modelProvider.get(StringUtils.fromString("chatExecutor")),
                 modelProvider.get(StringUtils.fromString("modelType")),
-                modelProvider.get(StringUtils.fromString("modleParameters")),
+                modelProvider.get(StringUtils.fromString("requestTemplate")),
+                modelProvider.get(StringUtils.fromString("streamGenerate")),
+                modelProvider.get(StringUtils.fromString("imageCache")),
                 prompt, expectedResponseTypedesc);
     }
 }
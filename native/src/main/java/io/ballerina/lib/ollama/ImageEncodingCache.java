@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BHandle;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed LRU cache of the base64 encodings of images sent to the model. Images are keyed by the
+ * SHA-256 digest of their bytes together with their length, so that an image is never sent with the encoding of
+ * another one, and the cache is bounded by the total size of the cached encodings.
+ *
+ * @since 1.2.4
+ */
+public final class ImageEncodingCache {
+    // A multiple of 3, so that every slice except the last encodes without padding.
+    private static final int ENCODING_SLICE_SIZE = 3 * 16 * 1024;
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private final long maxSize;
+    private final long maxEntrySize;
+    private final LinkedHashMap<ContentKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    private ImageEncodingCache(long maxSize, long maxEntrySize) {
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public static Object createImageEncodingCache(long maxSize, long maxEntrySize) {
+        return ValueCreator.createHandleValue(new ImageEncodingCache(maxSize, maxEntrySize));
+    }
+
+    public static BArray getImageEncodingCacheStats(BHandle cache) {
+        return ((ImageEncodingCache) cache.getValue()).getStats();
+    }
+
+    /**
+     * Returns the base64 encoding of the image, encoding and caching it on a miss. Returns {@code null} when the
+     * encoding is too large to be cached, in which case the caller is expected to encode the image in chunks. The
+     * image is digested and encoded a slice at a time, without copying it out of the Ballerina array.
+     */
+    byte[] getOrEncode(BArray image) {
+        ContentKey key = ContentKey.of(image);
+        synchronized (this) {
+            byte[] encoded = this.entries.get(key);
+            if (encoded != null) {
+                this.hits++;
+                return encoded;
+            }
+            this.misses++;
+        }
+
+        long encodedLength = 4L * ((image.size() + 2) / 3);
+        if (encodedLength > this.maxEntrySize || encodedLength > this.maxSize) {
+            return null;
+        }
+        byte[] encoded = new byte[(int) encodedLength];
+        byte[] slice = new byte[ENCODING_SLICE_SIZE];
+        int offset = 0;
+        int encodedOffset = 0;
+        while (offset < image.size()) {
+            int length = RequestBodyWriter.readSlice(image, offset, slice);
+            ByteBuffer encodedSlice = ENCODER.encode(ByteBuffer.wrap(slice, 0, length));
+            int encodedSliceLength = encodedSlice.remaining();
+            encodedSlice.get(encoded, encodedOffset, encodedSliceLength);
+            encodedOffset += encodedSliceLength;
+            offset += length;
+        }
+        put(key, encoded);
+        return encoded;
+    }
+
+    // The size of the cache is the total length of the cached encodings, which is kept within the maximum size by
+    // evicting the least recently used encodings. An encoding larger than the maximum size is never put.
+    private synchronized void put(ContentKey key, byte[] encoded) {
+        byte[] previous = this.entries.put(key, encoded);
+        if (previous != null) {
+            this.size -= previous.length;
+        }
+        this.size += encoded.length;
+        Iterator<Map.Entry<ContentKey, byte[]>> eldest = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize && eldest.hasNext()) {
+            this.size -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized BArray getStats() {
+        return ValueCreator.createArrayValue(new long[]{this.hits, this.misses, this.entries.size(), this.size});
+    }
+}
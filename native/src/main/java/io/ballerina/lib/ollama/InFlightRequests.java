@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.creators.ErrorCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BHandle;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Registry of the requests that are in flight, used to coalesce identical requests sent concurrently. Requests are
+ * identified by the SHA-256 content address of their payload, so that requests with different payloads are never
+ * coalesced, and the callers of an identical request wait for the response of the request in flight instead of
+ * sending it again. Callers wait at most for the configured time, so that they
+ * are not held indefinitely by a request that never completes.
+ *
+ * @since 1.2.4
+ */
+public final class InFlightRequests {
+    private final ConcurrentHashMap<ContentKey, CompletableFuture<Object>> requests = new ConcurrentHashMap<>();
+    private final long joinTimeoutNanos;
+
+    private InFlightRequests(long joinTimeoutNanos) {
+        this.joinTimeoutNanos = joinTimeoutNanos;
+    }
+
+    public static Object createInFlightRequests(long joinTimeoutNanos) {
+        return ValueCreator.createHandleValue(new InFlightRequests(joinTimeoutNanos));
+    }
+
+    /**
+     * Returns a registration handle if no identical request is in flight, in which case the payload is registered as
+     * in flight and the caller is expected to send it and publish the response with {@link #completeInFlightRequest}
+     * using the handle. Otherwise, waits for the identical request and returns its response, or an error if it does
+     * not complete within the join timeout.
+     */
+    public static Object joinInFlightRequest(Environment env, BHandle inFlightRequests, BArray payload) {
+        InFlightRequests registry = (InFlightRequests) inFlightRequests.getValue();
+        ContentKey key = ContentKey.of(payload);
+        CompletableFuture<Object> registration = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = registry.requests.putIfAbsent(key, registration);
+        if (inFlight == null) {
+            return ValueCreator.createHandleValue(new Registration(registry, key, registration));
+        }
+        return env.yieldAndRun(() -> registry.await(inFlight));
+    }
+
+    /**
+     * Publishes the response of a registered request to the callers waiting for it and removes the registration, so
+     * that later identical requests are sent again.
+     */
+    public static void completeInFlightRequest(BHandle registration, Object response) {
+        Registration inFlight = (Registration) registration.getValue();
+        inFlight.registry().requests.remove(inFlight.key(), inFlight.response());
+        inFlight.response().complete(response);
+    }
+
+    private Object await(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get(this.joinTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return ErrorCreator.createError(StringUtils.fromString(
+                    "Timed out while waiting for an identical request in flight"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ErrorCreator.createError(StringUtils.fromString(
+                    "Interrupted while waiting for an identical request in flight"));
+        } catch (ExecutionException e) {
+            return ErrorCreator.createError(StringUtils.fromString(e.getCause().getMessage()));
+        }
+    }
+
+    private record Registration(InFlightRequests registry, ContentKey key, CompletableFuture<Object> response) {
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.runtime.api.values.BString;
+
+/**
+ * Builds the prompt text sent to Ollama from an {@code ai:Prompt} in a single pass over its strings and
+ * insertions. The kind of each insertion is resolved on the Ballerina side, so that the type tests keep the
+ * exact Ballerina semantics, and only the text assembly happens here. Image contents are collected as is and
+ * encoded only while the request body is written.
+ *
+ * @since 1.2.4
+ */
+public final class PromptBuilder {
+    private static final long DOCUMENT_INSERTION = 0;
+    private static final long DOCUMENTS_INSERTION = 1;
+    private static final BString STRINGS = StringUtils.fromString("strings");
+    private static final BString INSERTIONS = StringUtils.fromString("insertions");
+    private static final BString CONTENT = StringUtils.fromString("content");
+    private static final String IMAGE_PLACEHOLDER = "[img]";
+    private static final String DOCUMENT_SEPARATOR = " ";
+    private static final int VALUE_LENGTH_ESTIMATE = 16;
+
+    private PromptBuilder() {
+    }
+
+    public static BString buildPrompt(BObject prompt, BArray kinds, BString suffix, BArray images) {
+        BArray strings = (BArray) prompt.get(STRINGS);
+        BArray insertions = (BArray) prompt.get(INSERTIONS);
+        StringBuilder builder = new StringBuilder(estimateLength(strings, insertions, kinds, suffix));
+        if (strings.size() > 0) {
+            builder.append(strings.getBString(0).getValue());
+        }
+
+        for (int i = 0; i < insertions.size(); i++) {
+            Object insertion = insertions.get(i);
+            long kind = kinds.getInt(i);
+            if (kind == DOCUMENT_INSERTION) {
+                appendDocument(builder, insertion, images);
+            } else if (kind == DOCUMENTS_INSERTION) {
+                BArray documents = (BArray) insertion;
+                for (int j = 0; j < documents.size(); j++) {
+                    appendDocument(builder, documents.get(j), images);
+                }
+            } else {
+                builder.append(StringUtils.getStringValue(insertion));
+            }
+            builder.append(strings.getBString(i + 1).getValue());
+        }
+        builder.append(suffix.getValue());
+        return StringUtils.fromString(trim(builder));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void appendDocument(StringBuilder builder, Object document, BArray images) {
+        Object content = ((BMap<BString, Object>) document).get(CONTENT);
+        if (content instanceof BString text) {
+            builder.append(text.getValue()).append(DOCUMENT_SEPARATOR);
+            return;
+        }
+        images.append(content);
+        builder.append(IMAGE_PLACEHOLDER);
+    }
+
+    private static int estimateLength(BArray strings, BArray insertions, BArray kinds, BString suffix) {
+        long length = suffix.length();
+        for (int i = 0; i < strings.size(); i++) {
+            length += strings.getBString(i).length();
+        }
+        for (int i = 0; i < insertions.size(); i++) {
+            long kind = kinds.getInt(i);
+            if (kind == DOCUMENT_INSERTION) {
+                length += estimateDocumentLength(insertions.get(i));
+            } else if (kind == DOCUMENTS_INSERTION) {
+                BArray documents = (BArray) insertions.get(i);
+                for (int j = 0; j < documents.size(); j++) {
+                    length += estimateDocumentLength(documents.get(j));
+                }
+            } else {
+                length += VALUE_LENGTH_ESTIMATE;
+            }
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long estimateDocumentLength(Object document) {
+        Object content = ((BMap<BString, Object>) document).get(CONTENT);
+        return content instanceof BString text ? text.length() + 1 : IMAGE_PLACEHOLDER.length();
+    }
+
+    // Matches `string:trim`, which only removes ASCII white space (0x9 to 0xD and 0x20).
+    private static String trim(StringBuilder builder) {
+        int start = 0;
+        int end = builder.length();
+        while (start < end && isAsciiWhiteSpace(builder.charAt(start))) {
+            start++;
+        }
+        while (end > start && isAsciiWhiteSpace(builder.charAt(end - 1))) {
+            end--;
+        }
+        return builder.substring(start, end);
+    }
+
+    private static boolean isAsciiWhiteSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BHandle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Produces the chunks of an {@code /api/chat} request body that carries images. The image bytes are base64
+ * encoded one chunk at a time as the body is written, so neither a copy of an image nor its full base64 string is
+ * held in memory, unless an {@link ImageEncodingCache} is configured to keep the encodings for reuse.
+ *
+ * @since 1.2.4
+ */
+public final class RequestBodyWriter {
+    // A multiple of 3, so that every chunk except the last encodes without padding.
+    private static final int RAW_CHUNK_SIZE = 3 * 16 * 1024;
+    private static final byte[] FIRST_IMAGE_START = "\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] IMAGE_START = ",\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] IMAGE_END = "\"".getBytes(StandardCharsets.UTF_8);
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private final BArray head;
+    private final BArray images;
+    private final BArray tail;
+    private final ImageEncodingCache imageCache;
+    private boolean headWritten = false;
+    private boolean tailWritten = false;
+    private int imageIndex = 0;
+    private BArray image = null;
+    private int imageOffset = 0;
+    private byte[] encodedImage = null;
+    private byte[] rawChunk = null;
+
+    private RequestBodyWriter(BArray head, BArray images, BArray tail, ImageEncodingCache imageCache) {
+        this.head = head;
+        this.images = images;
+        this.tail = tail;
+        this.imageCache = imageCache;
+    }
+
+    public static Object createRequestBodyWriter(BArray head, BArray images, BArray tail, Object imageCache) {
+        ImageEncodingCache cache = imageCache instanceof BHandle handle ? (ImageEncodingCache) handle.getValue() : null;
+        return ValueCreator.createHandleValue(new RequestBodyWriter(head, images, tail, cache));
+    }
+
+    public static Object nextRequestBodyChunk(BHandle writer) {
+        return ((RequestBodyWriter) writer.getValue()).next();
+    }
+
+    private BArray next() {
+        if (!this.headWritten) {
+            this.headWritten = true;
+            return this.head;
+        }
+
+        if (this.imageIndex < this.images.size()) {
+            return nextImageChunk();
+        }
+
+        if (!this.tailWritten) {
+            this.tailWritten = true;
+            return this.tail;
+        }
+        return null;
+    }
+
+    private BArray nextImageChunk() {
+        if (this.image == null) {
+            this.image = (BArray) this.images.get(this.imageIndex);
+            this.imageOffset = 0;
+            this.encodedImage = this.imageCache != null ? this.imageCache.getOrEncode(this.image) : null;
+            return ValueCreator.createArrayValue((this.imageIndex == 0 ? FIRST_IMAGE_START : IMAGE_START).clone());
+        }
+
+        if (this.encodedImage != null) {
+            // Cached encodings are written as a single chunk. The encoding is shared with the cache and the other
+            // requests, so the chunk is read-only.
+            BArray encoded = ValueCreator.createArrayValue(this.encodedImage);
+            encoded.freezeDirect();
+            this.encodedImage = null;
+            this.imageOffset = this.image.size();
+            return encoded;
+        }
+
+        if (this.imageOffset < this.image.size()) {
+            if (this.rawChunk == null) {
+                this.rawChunk = new byte[RAW_CHUNK_SIZE];
+            }
+            int length = readSlice(this.image, this.imageOffset, this.rawChunk);
+            ByteBuffer encoded = ENCODER.encode(ByteBuffer.wrap(this.rawChunk, 0, length));
+            this.imageOffset += length;
+            return ValueCreator.createArrayValue(encoded.array());
+        }
+
+        this.image = null;
+        this.imageIndex++;
+        return ValueCreator.createArrayValue(IMAGE_END.clone());
+    }
+
+    /**
+     * Copies the bytes of the image from the given offset into the slice, up to the length of the slice, and returns
+     * the number of bytes copied. Images are read a slice at a time, so that their bytes are not copied out of the
+     * Ballerina array all at once.
+     */
+    static int readSlice(BArray image, int offset, byte[] slice) {
+        int length = Math.min(slice.length, image.size() - offset);
+        for (int i = 0; i < length; i++) {
+            slice[i] = image.getByte(offset + i);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.creators.ErrorCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BHandle;
+import io.ballerina.runtime.api.values.BString;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the responses of the model, keyed by the content address of the request payload. Responses are held in
+ * an LRU map bounded by the number of entries, and optionally appended to a {@link ResponseCacheFile} so that they
+ * survive restarts. Every response expires once its time to live has elapsed.
+ *
+ * @since 1.2.4
+ */
+public final class ResponseCache {
+    private final long ttlMillis;
+    private final Map<ContentKey, Entry> entries;
+    private final ResponseCacheFile file;
+    private long hits = 0;
+    private long fileHits = 0;
+    private long misses = 0;
+
+    private ResponseCache(long capacity, long ttlMillis, ResponseCacheFile file) {
+        this.ttlMillis = ttlMillis;
+        this.file = file;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ContentKey, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static Object createResponseCacheStore(long capacity, long ttlMillis, Object filePath,
+                                                  long maxFileSize) {
+        ResponseCacheFile file = null;
+        if (filePath instanceof BString path) {
+            try {
+                file = ResponseCacheFile.open(Path.of(path.getValue()), maxFileSize);
+            } catch (IOException | RuntimeException e) {
+                return ErrorCreator.createError(StringUtils.fromString(e.getMessage()));
+            }
+        }
+        return ValueCreator.createHandleValue(new ResponseCache(capacity, ttlMillis, file));
+    }
+
+    public static Object getCachedResponse(BHandle cache, BArray request) {
+        byte[] response = ((ResponseCache) cache.getValue()).get(ContentKey.of(request.getBytes()));
+        return response == null ? null : ValueCreator.createArrayValue(response);
+    }
+
+    public static Object cacheResponse(BHandle cache, BArray request, BArray response) {
+        try {
+            ((ResponseCache) cache.getValue()).put(ContentKey.of(request.getBytes()), response.getBytes());
+            return null;
+        } catch (IOException e) {
+            return ErrorCreator.createError(StringUtils.fromString(e.getMessage()));
+        }
+    }
+
+    public static BArray getResponseCacheStoreStats(BHandle cache) {
+        return ((ResponseCache) cache.getValue()).getStats();
+    }
+
+    private byte[] get(ContentKey key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt() > now) {
+                this.hits++;
+                return entry.response();
+            }
+            if (entry != null) {
+                this.entries.remove(key);
+            }
+        }
+
+        if (this.file != null) {
+            ResponseCacheFile.Entry entry = this.file.get(key, now);
+            if (entry != null) {
+                synchronized (this) {
+                    this.fileHits++;
+                    this.entries.put(key, new Entry(entry.response(), entry.expiresAt()));
+                }
+                return entry.response();
+            }
+        }
+        synchronized (this) {
+            this.misses++;
+        }
+        return null;
+    }
+
+    private void put(ContentKey key, byte[] response) throws IOException {
+        long expiresAt = System.currentTimeMillis() + this.ttlMillis;
+        synchronized (this) {
+            this.entries.put(key, new Entry(response, expiresAt));
+        }
+        if (this.file != null) {
+            this.file.append(key, response, expiresAt);
+        }
+    }
+
+    private synchronized BArray getStats() {
+        return ValueCreator.createArrayValue(new long[]{this.hits, this.fileHits, this.misses, this.entries.size()});
+    }
+
+    private record Entry(byte[] response, long expiresAt) {
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of cached responses. The file starts with a format marker, followed by records that each hold the
+ * content address of the request, the expiry time and the response, and only the location of the records is kept in
+ * memory. A file of another format is discarded when it is opened, as is a record that was not completely written,
+ * such as when the process stopped while appending. When the file is full, it is compacted by rewriting the most
+ * recent live records into a new file.
+ *
+ * @since 1.2.4
+ */
+final class ResponseCacheFile {
+    // Marker of the format of the records, changed whenever the format of the records changes.
+    private static final long FORMAT_MARKER = 0x4F4C52430002L;
+    private static final int FORMAT_MARKER_SIZE = Long.BYTES;
+    // Content address of the request, expiry time and length of the response.
+    private static final int HEADER_SIZE = ContentKey.SIZE + Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final long maxSize;
+    private final Map<ContentKey, Location> index = new HashMap<>();
+    private FileChannel channel;
+    private long size;
+    // Size beyond which the file is compacted, which is raised past the current size when compacting fails.
+    private long compactionSize;
+
+    private ResponseCacheFile(Path path, long maxSize) {
+        this.path = path;
+        this.maxSize = maxSize;
+        this.compactionSize = maxSize;
+    }
+
+    static ResponseCacheFile open(Path path, long maxSize) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ResponseCacheFile file = new ResponseCacheFile(path, maxSize);
+        file.load();
+        return file;
+    }
+
+    synchronized Entry get(ContentKey key, long now) {
+        Location location = this.index.get(key);
+        if (location == null) {
+            return null;
+        }
+        if (location.expiresAt() <= now) {
+            this.index.remove(key);
+            return null;
+        }
+        try {
+            ByteBuffer response = ByteBuffer.allocate(location.length());
+            readFully(response, location.offset());
+            return new Entry(response.array(), location.expiresAt());
+        } catch (IOException e) {
+            // An unreadable record is treated as a miss, and is replaced once the response is received again.
+            this.index.remove(key);
+            return null;
+        }
+    }
+
+    synchronized void append(ContentKey key, byte[] response, long expiresAt) throws IOException {
+        long recordSize = (long) HEADER_SIZE + response.length;
+        if (FORMAT_MARKER_SIZE + recordSize > this.maxSize) {
+            return;
+        }
+        if (this.size + recordSize > this.compactionSize) {
+            try {
+                compact(this.maxSize / 2 - recordSize);
+                this.compactionSize = this.maxSize;
+            } catch (IOException e) {
+                // The records are appended to the current file instead, and compacting is only tried again once
+                // the file has grown by another half of its maximum size.
+                this.compactionSize = this.size + this.maxSize / 2;
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+        writeHeader(record, key, expiresAt, response.length);
+        record.put(response).flip();
+        long offset = this.size;
+        while (record.hasRemaining()) {
+            this.channel.write(record, offset + record.position());
+        }
+        this.index.put(key, new Location(offset + HEADER_SIZE, response.length, expiresAt));
+        this.size = offset + recordSize;
+    }
+
+    private void load() throws IOException {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long fileSize = this.channel.size();
+        if (!hasFormatMarker(this.channel, fileSize)) {
+            this.channel.truncate(0);
+            writeFormatMarker(this.channel);
+            this.size = FORMAT_MARKER_SIZE;
+            return;
+        }
+        long now = System.currentTimeMillis();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long offset = FORMAT_MARKER_SIZE;
+        while (offset + HEADER_SIZE <= fileSize) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            ContentKey key = ContentKey.read(header);
+            long expiresAt = header.getLong();
+            int length = header.getInt();
+            long responseOffset = offset + HEADER_SIZE;
+            if (length < 0 || responseOffset + length > fileSize) {
+                break;
+            }
+            if (expiresAt > now) {
+                this.index.put(key, new Location(responseOffset, length, expiresAt));
+            } else {
+                this.index.remove(key);
+            }
+            offset = responseOffset + length;
+        }
+        if (offset < fileSize) {
+            this.channel.truncate(offset);
+        }
+        this.size = offset;
+    }
+
+    // Rewrites the most recently appended live records that fit within the given size into a new file, and
+    // replaces the current file with it.
+    private void compact(long targetSize) throws IOException {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<ContentKey, Location>> records = new ArrayList<>(this.index.entrySet());
+        records.removeIf(record -> record.getValue().expiresAt() <= now);
+        records.sort(Comparator.comparingLong(record -> -record.getValue().offset()));
+        long retainedSize = FORMAT_MARKER_SIZE;
+        int retained = 0;
+        for (Map.Entry<ContentKey, Location> record : records) {
+            long recordSize = (long) HEADER_SIZE + record.getValue().length();
+            if (retainedSize + recordSize > targetSize) {
+                break;
+            }
+            retainedSize += recordSize;
+            retained++;
+        }
+        List<Map.Entry<ContentKey, Location>> retainedRecords = new ArrayList<>(records.subList(0, retained));
+        retainedRecords.sort(Comparator.comparingLong(record -> record.getValue().offset()));
+
+        // The compacted file replaces the current one only once it is completely written and moved into place,
+        // so the current file remains in use if compacting fails.
+        Path compactedPath = this.path.resolveSibling(this.path.getFileName() + ".compact");
+        Map<ContentKey, Location> compactedIndex = new HashMap<>();
+        try (FileChannel compacted = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFormatMarker(compacted);
+            long offset = FORMAT_MARKER_SIZE;
+            for (Map.Entry<ContentKey, Location> record : retainedRecords) {
+                Location location = record.getValue();
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + location.length());
+                writeHeader(buffer, record.getKey(), location.expiresAt(), location.length());
+                readFully(buffer, location.offset());
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    compacted.write(buffer, offset + buffer.position());
+                }
+                compactedIndex.put(record.getKey(),
+                        new Location(offset + HEADER_SIZE, location.length(), location.expiresAt()));
+                offset += buffer.limit();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compactedPath);
+            throw e;
+        }
+
+        // A file cannot be replaced while it is open on some platforms, so the current file is closed for the
+        // move and the file in place, compacted or not, is opened again afterwards.
+        this.channel.close();
+        try {
+            Files.move(compactedPath, this.path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compactedPath);
+            this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            throw e;
+        }
+        this.index.clear();
+        this.index.putAll(compactedIndex);
+        this.size = retainedSize;
+        this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the response cache file");
+            }
+        }
+    }
+
+    private static boolean hasFormatMarker(FileChannel channel, long fileSize) throws IOException {
+        if (fileSize < FORMAT_MARKER_SIZE) {
+            return false;
+        }
+        ByteBuffer marker = ByteBuffer.allocate(FORMAT_MARKER_SIZE);
+        while (marker.hasRemaining()) {
+            if (channel.read(marker, marker.position()) < 0) {
+                return false;
+            }
+        }
+        return marker.flip().getLong() == FORMAT_MARKER;
+    }
+
+    private static void writeFormatMarker(FileChannel channel) throws IOException {
+        ByteBuffer marker = ByteBuffer.allocate(FORMAT_MARKER_SIZE).putLong(FORMAT_MARKER).flip();
+        while (marker.hasRemaining()) {
+            channel.write(marker, marker.position());
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, ContentKey key, long expiresAt, int length) {
+        key.write(buffer);
+        buffer.putLong(expiresAt).putInt(length);
+    }
+
+    record Entry(byte[] response, long expiresAt) {
+    }
+
+    private record Location(long offset, int length, long expiresAt) {
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.utils.ValueUtils;
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BTypedesc;
+
+/**
+ * Binds the values that the model returns for {@code generate} calls to the expected type. The arguments of a
+ * {@code getResults} tool call are already parsed when the response is bound, so they are converted to the expected
+ * type in place, without serializing them and parsing the JSON text again.
+ *
+ * @since 1.2.4
+ */
+public final class ResponseDecoder {
+
+    private ResponseDecoder() {
+    }
+
+    /**
+     * Converts a parsed JSON value to the expected type. A value that cannot be converted results in the
+     * conversion error, which is returned instead of being thrown so that the caller can report it.
+     */
+    public static Object bindResponseValue(Object value, BTypedesc td) {
+        try {
+            return ValueUtils.convert(value, td.getDescribingType());
+        } catch (BError e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2025, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.lib.ai.ollama;
+
+import io.ballerina.runtime.api.types.Type;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import io.ballerina.runtime.api.values.BTypedesc;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the response schemas and {@code getResults} tool definitions generated for the expected
+ * types of {@code generate} calls. Entries are keyed by the identity of the runtime type and hold read-only
+ * values, so they can be shared across strands.
+ *
+ * @since 1.2.4
+ */
+public final class SchemaCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final Map<TypeKey, BMap<BString, Object>> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TypeKey, BMap<BString, Object>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private SchemaCache() {
+    }
+
+    public static Object getCachedResponseSchema(BTypedesc td) {
+        return CACHE.get(new TypeKey(td.getDescribingType()));
+    }
+
+    public static void cacheResponseSchema(BTypedesc td, BMap<BString, Object> responseSchema) {
+        CACHE.put(new TypeKey(td.getDescribingType()), responseSchema);
+    }
+
+    private record TypeKey(Type type) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TypeKey other && other.type == this.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.type);
+        }
+    }
+}